@@ -0,0 +1,45 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+import java.lang.reflect.Field;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Binds fields and classes to {@link FieldAccessor} and {@link Instantiator} implementations.
+ * The active factory is configured through {@link Accessors#setFactory(AccessorFactory)}.
+ */
+public interface AccessorFactory {
+	/**
+	 * @param field field to bind, may be static
+	 * @return accessor for the given field
+	 */
+	FieldAccessor createFieldAccessor(Field field);
+
+	/**
+	 * @param cls class to instantiate
+	 * @return instantiator which creates objects without invoking any constructor, same as XStream does during deserialization
+	 */
+	Instantiator createAllocator(Class<?> cls);
+
+	/**
+	 * @param cls class to instantiate
+	 * @return instantiator which invokes the no-argument constructor of the given class
+	 */
+	Instantiator createConstructor(Class<?> cls);
+}
@@ -0,0 +1,91 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+import java.lang.reflect.Field;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Process-wide entry point to the accessor layer. Holds the active {@link AccessorFactory}
+ * ({@link MethodHandleAccessorFactory} by default) and caches instantiators per class.
+ * Field accessors are cached by the callers next to the rest of their per-class metadata.
+ */
+public final class Accessors {
+	private static volatile AccessorFactory factory = new MethodHandleAccessorFactory();
+	private static volatile ClassValue<Instantiator> allocators = newAllocatorCache();
+	private static volatile ClassValue<Instantiator> constructors = newConstructorCache();
+
+	private Accessors() {
+	}
+
+	private static ClassValue<Instantiator> newAllocatorCache() {
+		return new ClassValue<Instantiator>() {
+			@Override
+			protected Instantiator computeValue(Class<?> type) {
+				return factory.createAllocator(type);
+			}
+		};
+	}
+
+	private static ClassValue<Instantiator> newConstructorCache() {
+		return new ClassValue<Instantiator>() {
+			@Override
+			protected Instantiator computeValue(Class<?> type) {
+				return factory.createConstructor(type);
+			}
+		};
+	}
+
+	public static AccessorFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Replaces the accessor factory. Should be called before any data is generated or loaded,
+	 * field accessors which are already bound keep their implementation.
+	 * @param accessorFactory new accessor factory
+	 */
+	public static void setFactory(AccessorFactory accessorFactory) {
+		if (accessorFactory == null) {
+			throw new IllegalArgumentException("Accessor factory can't be null");
+		}
+		factory = accessorFactory;
+		allocators = newAllocatorCache();
+		constructors = newConstructorCache();
+	}
+
+	public static FieldAccessor forField(Field field) {
+		return factory.createFieldAccessor(field);
+	}
+
+	/**
+	 * @param cls class to instantiate
+	 * @return cached instantiator which does not invoke constructors
+	 */
+	public static Instantiator allocator(Class<?> cls) {
+		return allocators.get(cls);
+	}
+
+	/**
+	 * @param cls class to instantiate
+	 * @return cached instantiator which invokes the no-argument constructor
+	 */
+	public static Instantiator constructor(Class<?> cls) {
+		return constructors.get(cls);
+	}
+}
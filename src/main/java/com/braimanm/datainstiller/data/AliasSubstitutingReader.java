@@ -0,0 +1,143 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.braimanm.datainstiller.data;
+
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.ReaderWrapper;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Reader which replaces "${alias}" tokens in element values and attributes with values of the document aliases
+ * while the document is unmarshalled. {@link DataAliasesConverter} hands over the aliases of the root element,
+ * tokens read after that are substituted in a single pass. Tokens met before the aliases are known are left as is
+ * and reported by {@link #hasPendingTokens()}, so the caller can fall back to resolution of the whole document.
+ * Tokens of unknown aliases are always left as is.
+ */
+class AliasSubstitutingReader extends ReaderWrapper {
+	/**
+	 * Key of this reader in XStream data holder
+	 */
+	static final String KEY = AliasSubstitutingReader.class.getName();
+
+	private DataAliases aliases;
+	private int depth;
+	private boolean readingAliases;
+	private boolean pendingTokens;
+
+	AliasSubstitutingReader(HierarchicalStreamReader reader) {
+		super(reader);
+	}
+
+	/**
+	 * @param reader reader to wrap
+	 * @param aliases aliases to substitute from the beginning of the document
+	 */
+	AliasSubstitutingReader(HierarchicalStreamReader reader, DataAliases aliases) {
+		super(reader);
+		this.aliases = aliases;
+	}
+
+	@Override
+	public void moveDown() {
+		super.moveDown();
+		depth++;
+	}
+
+	@Override
+	public void moveUp() {
+		super.moveUp();
+		depth--;
+	}
+
+	/**
+	 * Called by {@link DataAliasesConverter} when it starts reading aliases element, only aliases of the root
+	 * element are used for substitution, their expressions are read as is.
+	 */
+	void startAliases() {
+		if (depth == 1 && aliases == null) {
+			readingAliases = true;
+		}
+	}
+
+	void endAliases(DataAliases aliases) {
+		if (readingAliases) {
+			readingAliases = false;
+			this.aliases = aliases;
+		}
+	}
+
+	DataAliases getAliases() {
+		return aliases;
+	}
+
+	/**
+	 * @return true if tokens were read before the root aliases were known and the document has aliases
+	 */
+	boolean hasPendingTokens() {
+		return pendingTokens && aliases != null && !aliases.isEmpty();
+	}
+
+	@Override
+	public String getValue() {
+		return substitute(super.getValue());
+	}
+
+	@Override
+	public String getAttribute(String name) {
+		return substitute(super.getAttribute(name));
+	}
+
+	@Override
+	public String getAttribute(int index) {
+		return substitute(super.getAttribute(index));
+	}
+
+	private String substitute(String text) {
+		if (text == null || readingAliases) {
+			return text;
+		}
+		int start = text.indexOf("${");
+		if (start < 0) {
+			return text;
+		}
+		if (aliases == null) {
+			pendingTokens = true;
+			return text;
+		}
+		StringBuilder out = null;
+		int copied = 0;
+		while (start >= 0) {
+			int end = text.indexOf('}', start + 2);
+			if (end < 0) {
+				break;
+			}
+			String key = text.substring(start + 2, end);
+			if (aliases.containsKey(key)) {
+				if (out == null) {
+					out = new StringBuilder(text.length() + 16);
+				}
+				out.append(text, copied, start).append(aliases.getAsString(key));
+				copied = end + 1;
+			}
+			start = text.indexOf("${", end + 1);
+		}
+		if (out == null) {
+			return text;
+		}
+		return out.append(text, copied, text.length()).toString();
+	}
+}
@@ -16,7 +16,8 @@ Copyright 2010-2021 Michael Braiman braimanm@gmail.com
 
 package com.braimanm.datainstiller.data;
 
-import com.braimanm.datainstiller.generators.GeneratorInterface;
+import com.braimanm.datainstiller.generators.BoundedCache;
+import com.braimanm.datainstiller.generators.GeneratorRegistry;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.converters.Converter;
 import com.thoughtworks.xstream.converters.MarshallingContext;
@@ -28,8 +29,6 @@ import org.apache.commons.jexl3.JexlContext;
 import org.apache.commons.jexl3.JxltEngine;
 import org.apache.commons.jexl3.MapContext;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * 
@@ -38,16 +37,29 @@ import java.util.regex.Pattern;
  *          During unmarshaling, if alias value is data generator expression then this expression is resolved to data using specific generator. 
  */
 public class DataAliasesConverter implements Converter {
-    private JexlContext jexlContext;
-    private DataAliases globalAliases;
+	/**
+	 * Key of the per call {@link JexlContext} in XStream data holder, takes precedence over the context given to the constructor
+	 */
+	public static final String JEXL_CONTEXT = DataAliasesConverter.class.getName() + ".jexlContext";
+	// templates are cached by this class, JXLT engine's own cache isn't safe for concurrent reads in this JEXL version
+	private static final JxltEngine JXLT = new JexlBuilder().strict(true).silent(false).create()
+			.createJxltEngine(true, 0, '$', '#');
+	private static final BoundedCache<String, JxltEngine.Expression> EXPRESSIONS = new BoundedCache<>();
+    private final JexlContext jexlContext;
+    private final DataAliases globalAliases;
+
+	/**
+	 * Creates converter which evaluates alias expressions in the context passed with every unmarshal call
+	 * under {@link #JEXL_CONTEXT} key, or in a new empty context if there is none. Such converter is thread-safe.
+	 * @param globalAliases aliases available to the expressions of every document, might be null
+	 */
+	public DataAliasesConverter(DataAliases globalAliases) {
+		this(null, globalAliases);
+	}
 
     public DataAliasesConverter(JexlContext jexlContext, DataAliases globalAliases) {
         this.globalAliases = globalAliases;
-    	if (jexlContext == null) {
-            this.jexlContext = new MapContext();
-        } else {
-            this.jexlContext = jexlContext;
-        }
+        this.jexlContext = jexlContext;
     }
 
 	@Override
@@ -70,29 +82,27 @@ public class DataAliasesConverter implements Converter {
 	@Override
 	public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
 		DataAliases aliases = new DataAliases();
+		AliasSubstitutingReader substitutingReader = (AliasSubstitutingReader) context.get(AliasSubstitutingReader.KEY);
+		if (substitutingReader != null) {
+			substitutingReader.startAliases();
+		}
+		JexlContext callContext = (JexlContext) context.get(JEXL_CONTEXT);
+		JexlContext jexlContext = (callContext != null) ? callContext : (this.jexlContext != null) ? this.jexlContext : new MapContext();
 		if (globalAliases != null) {
 			globalAliases.forEach((key, value)->jexlContext.set(key, value));
 		}
 		String nodeName;
 		String value;
         Object objValue = null;
-        JxltEngine jxlt = new JexlBuilder().strict(true).silent(false).create().createJxltEngine();
         while (reader.hasMoreChildren()) {
 			reader.moveDown();
 			nodeName = reader.getNodeName();
 			value = reader.getValue();
-            if (value.matches("\\$\\[.+]")) {
-                Pattern pattern = Pattern.compile("\\$\\[(.+)\\(\\s*'\\s*(.*)\\s*'\\s*,\\s*'\\s*(.*)\\s*'\\s*\\)");
-                Matcher matcher = pattern.matcher(value);
-				if (!matcher.find()) {
-					throw new PatternUnmarshalException(value + " - invalid data generation expression!");
-				}	
-				GeneratorInterface genType = new DataGenerator(new XStream()).getGenerator(matcher.group(1).trim());
-				String init = matcher.group(2);
-				String val = matcher.group(3);
-				value = genType.generate(init, val);
+            GeneratorDirective directive = GeneratorDirective.compile(value);
+            if (directive != null) {
+				value = directive.evaluate(GeneratorRegistry.getDefault());
             } else {
-                JxltEngine.Expression expr = jxlt.createExpression(value);
+                JxltEngine.Expression expr = getExpression(value);
                 try {
                     objValue = expr.evaluate(jexlContext);
                     if (objValue != null) {
@@ -111,6 +121,17 @@ public class DataAliasesConverter implements Converter {
             objValue = null;
             reader.moveUp();
 		}
+		if (substitutingReader != null) {
+			substitutingReader.endAliases(aliases);
+		}
 		return aliases;
 	}
+
+	/**
+	 * @param source template source
+	 * @return compiled template, templates are cached by source text
+	 */
+	static JxltEngine.Expression getExpression(String source) {
+		return EXPRESSIONS.get(source, JXLT::createExpression);
+	}
 }
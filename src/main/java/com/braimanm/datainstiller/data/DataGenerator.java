@@ -16,11 +16,13 @@ Copyright 2010-2021 Michael Braiman braimanm@gmail.com
 
 package com.braimanm.datainstiller.data;
 
+import com.braimanm.datainstiller.data.GenerationPlan.FieldPlan;
 import com.braimanm.datainstiller.generators.*;
 import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.annotations.XStreamOmitField;
+import com.thoughtworks.xstream.converters.ConversionException;
 import com.thoughtworks.xstream.converters.Converter;
 import com.thoughtworks.xstream.converters.SingleValueConverter;
+import com.thoughtworks.xstream.converters.SingleValueConverterWrapper;
 import com.thoughtworks.xstream.converters.collections.ArrayConverter;
 import com.thoughtworks.xstream.converters.collections.CharArrayConverter;
 import com.thoughtworks.xstream.converters.collections.CollectionConverter;
@@ -35,6 +37,9 @@ import com.thoughtworks.xstream.security.AnyTypePermission;
 import java.lang.reflect.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @SuppressWarnings("unused")
 public class DataGenerator {
@@ -42,8 +47,21 @@ public class DataGenerator {
 	private int recursionLevel = 2;
 	private final FieldReferenceCounter recursionCounter = new FieldReferenceCounter();
 	private final FieldDataStore fieldDataStore = new FieldDataStore();
-	private final Map<String, GeneratorInterface> generatorStore = new HashMap<>();
+	private final GeneratorRegistry generators;
+	private final Set<Class<?>> processedClasses = new HashSet<>();
+	private final Map<Class<?>, TypeInfo> typeInfoCache;
 	private final XStream xstream;
+	private final ObjectCloner cloner;
+	private RandomSource randomSource;
+	private Long seed;
+	private long nextRecordIndex;
+	private long pathKey;
+	// date fields without typed generator get a date of the year 2000 instead of the current time in deterministic mode
+	private static final long SEEDED_DATE_EPOCH = 946684800000L;
+	private static final long SEEDED_DATE_RANGE = 366L * 24 * 60 * 60 * 1000;
+	private static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd HH:mm:ss.S z";
+	private final CounterRandomSource counterSource = new CounterRandomSource(0);
+	private GenerationListener listener = GenerationListener.NO_OP;
 
 	public DataGenerator(XStream xstream) {
 		this(xstream, null);
@@ -52,14 +70,9 @@ public class DataGenerator {
 	public DataGenerator(XStream xstream, List<DataValueConverter> converters){
 		this.xstream = xstream;
 		this.xstream.addPermission(AnyTypePermission.ANY);
-		registerGenerator("ADDRESS", new AddressGenerator());
-		registerGenerator("ALPHANUMERIC", new AlphaNumericGenerator());
-		registerGenerator("CUSTOM_LIST",new CustomListGenerator());
-		registerGenerator("DATE",new DateGenerator());
-		registerGenerator("HUMAN_NAMES",new HumanNameGenerator());
-		registerGenerator("WORD",new WordGenerator());
-		registerGenerator("NUMBER",new NumberGenerator());
-		registerGenerator("FILE2LIST",new File2ListGenerator());
+		this.cloner = new ObjectCloner(xstream);
+		this.typeInfoCache = new ConcurrentHashMap<>();
+		this.generators = new GeneratorRegistry(GeneratorRegistry.getDefault());
         if (converters != null) {
             for (Converter converter : converters){
             	xstream.registerConverter(converter);
@@ -67,14 +80,88 @@ public class DataGenerator {
         }
 	}
 	
+	private DataGenerator(DataGenerator template) {
+		this.xstream = template.xstream;
+		this.cloner = template.cloner;
+		this.typeInfoCache = template.typeInfoCache;
+		this.nArray = template.nArray;
+		this.recursionLevel = template.recursionLevel;
+		this.generators = template.generators;
+		this.randomSource = (template.randomSource != null) ? template.randomSource.split() : null;
+		this.seed = template.seed;
+		this.listener = template.listener;
+	}
+
+	/**
+	 * @return new generator with the same configuration and registered generators but its own generation state,
+	 * resolved type information is shared with this generator
+	 */
+	synchronized DataGenerator fork() {
+		return new DataGenerator(this);
+	}
+
 	public GeneratorInterface getGenerator(String generator){
-		return  generatorStore.get(generator);
+		return  generators.get(generator);
 	}
 	
+	/**
+	 * Registers generator for this instance and its forks, overriding generator of the same name in the shared
+	 * {@link GeneratorRegistry#getDefault()} registry
+	 */
 	public void registerGenerator(String key, GeneratorInterface generator) {
-		generatorStore.put(key, generator);
+		generators.register(key, generator);
+	}
+
+	/**
+	 * @return registry of this instance, generators which aren't registered for this instance come from the shared default registry
+	 */
+	public GeneratorRegistry getGeneratorRegistry() {
+		return generators;
 	}
 		
+	public RandomSource getRandomSource() {
+		return randomSource;
+	}
+
+	/**
+	 * Sets the source of randomness for all generators used by this instance. The source is bound to the generating
+	 * thread for the duration of every {@link #generate(Class)} call, forks used for streams and parallel generation
+	 * get their own {@link RandomSource#split()} of it.
+	 * @param randomSource random source or null to use {@link RandomSources#current()} of the calling thread
+	 */
+	public void setRandomSource(RandomSource randomSource) {
+		this.randomSource = randomSource;
+	}
+
+	public GenerationListener getGenerationListener() {
+		return listener;
+	}
+
+	/**
+	 * Sets listener which receives generation events, forks share the listener.
+	 * @param listener listener to set, null switches back to {@link GenerationListener#NO_OP}
+	 */
+	public void setGenerationListener(GenerationListener listener) {
+		this.listener = (listener != null) ? listener : GenerationListener.NO_OP;
+	}
+
+	public Long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Switches this generator to deterministic mode. Randomness of every generated value is derived from a stateless
+	 * hash of (seed, record index, field path) by {@link CounterRandomSource}, so record number i is always the same
+	 * and can be regenerated directly with {@link #generate(Class, long)}. Streams and parallel generation produce
+	 * identical records no matter how the work is split. Date fields which would get the current time get a date of
+	 * the year 2000 derived from the same hash. The seed takes precedence over {@link #setRandomSource(RandomSource)}.
+	 * @param seed master seed or null to turn deterministic mode off
+	 */
+	public void setSeed(Long seed) {
+		this.seed = seed;
+		this.nextRecordIndex = 0;
+	}
+
 	public int getRecursionLevel() {
 		return recursionLevel;
 	}
@@ -99,9 +186,17 @@ public class DataGenerator {
 		}
 	}
 
-	private int getnArrayForField(Field field) {
+	private FieldData getFieldData(FieldPlan fieldPlan) {
+		if (fieldPlan == null) {
+			return null;
+		}
+		FieldData fieldData = fieldDataStore.getData(fieldPlan.field);
+		return (fieldData != null) ? fieldData : fieldPlan.data;
+	}
+
+	private int getnArrayForField(FieldPlan fieldPlan) {
 		int n = nArray;
-		FieldData fieldData = fieldDataStore.getData(field);
+		FieldData fieldData = getFieldData(fieldPlan);
 		if (fieldData != null && fieldData.nArray() > 0) {
 			n = fieldData.nArray();
 		}
@@ -109,11 +204,13 @@ public class DataGenerator {
 	}
 
 	public Object deepCopy(Object source){
-		String xml = xstream.toXML(source);
-		return xstream.fromXML(xml);
+		if (source != null && listener != GenerationListener.NO_OP) {
+			listener.deepCopied(source.getClass());
+		}
+		return cloner.deepCopy(source);
 	}
 
-	private String getGeneratedValue(FieldData fieldData){
+	private String getGeneratedValue(FieldPlan fieldPlan, FieldData fieldData){
 		String value = fieldData.value();
 		String alias = fieldData.alias();
         String aliasValue = (alias != null) ? fieldDataStore.getAliases().getAsString(alias) : null;
@@ -123,9 +220,16 @@ public class DataGenerator {
         }
 
         if (fieldData.generatorType() != null) {
-            GeneratorInterface generator = generatorStore.get(fieldData.generatorType());
+            GeneratorInterface generator = generators.get(fieldData.generatorType());
             if (generator != null) {
+                if (seed != null) {
+                    counterSource.reset(pathKey);
+                }
+                long start = (listener != GenerationListener.NO_OP) ? System.nanoTime() : 0;
                 value = generator.generate(fieldData.pattern(), fieldData.value());
+                if (listener != GenerationListener.NO_OP) {
+                    listener.valueGenerated(fieldPlan.field, generator, System.nanoTime() - start);
+                }
             } else {
 				throw new GeneratorNotFoundException("Generator " + fieldData.generatorType() + " was not found!");
 			}
@@ -139,11 +243,11 @@ public class DataGenerator {
 		return value;
 	}
 
-    private String generateValueForField(Class<?> cls, Field field) {
+    private String generateValueForField(Class<?> cls, FieldPlan fieldPlan) {
         String returnValue = null;
-        FieldData fieldData = fieldDataStore.getData(field);
+        FieldData fieldData = getFieldData(fieldPlan);
         if (fieldData != null) {
-            returnValue = getGeneratedValue(fieldData);
+            returnValue = getGeneratedValue(fieldPlan, fieldData);
         }
 		if (cls.isArray()){
 			cls = cls.getComponentType();
@@ -157,126 +261,342 @@ public class DataGenerator {
 				}
             }
             if (returnValue.startsWith("${")) {
-                return fieldData.resolveAlias();
+                return fieldDataStore.getAliases().getAsString(fieldData.alias());
 			}
 		} 
-		if (cls.equals(Date.class)){
-			String defaultPattern = "yyyy-MM-dd HH:mm:ss.S z";
-			return new SimpleDateFormat(defaultPattern).format(new Date());
+		if (returnValue == null && cls.equals(Date.class)) {
+			return new SimpleDateFormat(DEFAULT_DATE_PATTERN).format(defaultDate());
 		}
 
         if (returnValue == null) {
-            return field.getName();
+            return fieldPlan.field.getName();
         }
 			
 		return returnValue;
 	}
-	
-	private boolean isInnerClass(Class<?> cls){
-		if (cls.isMemberClass() && !Modifier.isStatic(cls.getModifiers())){
-			System.err.println("[WARNING] Only static nested classes are supported. Class " + cls.getCanonicalName() +" should be declared as static!");
-			return true;
-		} 
-		return false;
+
+	/**
+	 * Returns the value of a date field without typed generator: the current time, or a date derived from the field
+	 * path in deterministic mode.
+	 */
+	private Date defaultDate() {
+		if (seed != null) {
+			counterSource.reset(pathKey);
+			return new Date(SEEDED_DATE_EPOCH + counterSource.nextLong(0, SEEDED_DATE_RANGE));
+		}
+		return new Date();
 	}
-	
-	private void processAnnotations(Class<?> clasz){
-		MetaData metaData = clasz.getAnnotation(MetaData.class);
-        if (metaData != null) {
-            for (Data data : metaData.value()) {
-                Class<?> cls = clasz;
-                if (data.fieldClass() != void.class) {
-                    cls = data.fieldClass();
-                }
-				if (data.fieldName().trim().isEmpty()){
-					throw new AnnotationProcessingException("Field 'fieldName' must be provided in MetaData annotation" + data);
+
+	/**
+	 * Generates value of the given type without string round-trip through XStream converter.
+	 * @return generated value or null if the value should be generated as a string
+	 */
+	private Object generateTypedValue(Class<?> cls, FieldPlan fieldPlan) {
+		FieldData fieldData = getFieldData(fieldPlan);
+		GeneratorInterface generator = null;
+		if (fieldData != null && fieldData.alias() == null && fieldData.generatorType() != null) {
+			generator = generators.get(fieldData.generatorType());
+		}
+		if (!(generator instanceof TypedGenerator) || !((TypedGenerator) generator).supports(cls, fieldData.pattern())) {
+			if (cls.equals(Date.class)) {
+				if (fieldData != null) {
+					getGeneratedValue(fieldPlan, fieldData);
 				}
-				fieldDataStore.setData(cls, data.fieldName(), new FieldData(data));
+				return defaultDate();
 			}
+			return null;
 		}
-		Class<?> superClasz = clasz;
-		do {
-			for (Field field : superClasz.getDeclaredFields()){
-				Data data = field.getAnnotation(Data.class);
-                if (data == null) {
-                    continue;
-                }
-				if (!fieldDataStore.containsKey(field)){
-				    fieldDataStore.setData(field, new FieldData(data));
+		TypedGenerator typedGenerator = (TypedGenerator) generator;
+		if (seed != null) {
+			counterSource.reset(pathKey);
+		}
+		long start = (listener != GenerationListener.NO_OP) ? System.nanoTime() : 0;
+		Object value = typedGenerator.generate(cls, fieldData.pattern(), fieldData.value());
+		if (listener != GenerationListener.NO_OP) {
+			listener.valueGenerated(fieldPlan.field, generator, System.nanoTime() - start);
+		}
+		return value;
+	}
+
+	/**
+	 * Generates EnumSet with {@link EnumGenerator}.
+	 * @return generated set or null if the field isn't generated by {@link EnumGenerator}
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private EnumSet<?> generateEnumSet(Class enumType, FieldPlan fieldPlan) {
+		FieldData fieldData = getFieldData(fieldPlan);
+		if (fieldData == null || fieldData.alias() != null || fieldData.generatorType() == null) {
+			return null;
+		}
+		GeneratorInterface generator = generators.get(fieldData.generatorType());
+		if (!(generator instanceof EnumGenerator)) {
+			return null;
+		}
+		if (seed != null) {
+			counterSource.reset(pathKey);
+		}
+		long start = (listener != GenerationListener.NO_OP) ? System.nanoTime() : 0;
+		EnumSet<?> set = ((EnumGenerator) generator).generateSet(enumType, fieldData.pattern(), fieldData.value());
+		if (listener != GenerationListener.NO_OP) {
+			listener.valueGenerated(fieldPlan.field, generator, System.nanoTime() - start);
+		}
+		return set;
+	}
+
+	/**
+	 * @param value index of the constant or its name
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Object toEnumConstant(Class<?> enumType, String value) {
+		value = value.trim();
+		if (!value.isEmpty() && (Character.isDigit(value.charAt(0)) || value.charAt(0) == '-')) {
+			return enumType.getEnumConstants()[Integer.parseInt(value)];
+		}
+		return Enum.valueOf((Class) enumType, value);
+	}
+
+	/**
+	 * Fills primitive array either with {@link BulkGenerator} or with the single generated element, without boxing
+	 * of every array element.
+	 */
+	private Object generatePrimitiveArray(Class<?> componentType, int n, FieldPlan fieldPlan) {
+		Object array = Array.newInstance(componentType, n);
+		FieldData fieldData = getFieldData(fieldPlan);
+		if (fieldData != null && fieldData.alias() == null && fieldData.generatorType() != null) {
+			GeneratorInterface generator = generators.get(fieldData.generatorType());
+			if (generator instanceof BulkGenerator && ((BulkGenerator) generator).supports(componentType, fieldData.pattern())) {
+				if (seed != null) {
+					counterSource.reset(pathKey);
 				}
+				long start = (listener != GenerationListener.NO_OP) ? System.nanoTime() : 0;
+				((BulkGenerator) generator).fill(array, fieldData.pattern(), fieldData.value());
+				if (listener != GenerationListener.NO_OP) {
+					listener.valueGenerated(fieldPlan.field, generator, System.nanoTime() - start);
+				}
+				return array;
 			}
-			superClasz = superClasz.getSuperclass();
-        } while (superClasz != null);
-    }
-
-    @SuppressWarnings("restriction")
-	private Class<?> getGenericTypeOrString(Field field,int argumentNum){
-		Type type = field.getGenericType();
-		if (type instanceof ParameterizedType){
-			Type realType = ((ParameterizedType)type).getActualTypeArguments()[argumentNum];
-			if (!(realType instanceof WildcardType)){
-				if (realType instanceof ParameterizedType){
-					System.err.println("[WARNING] Collection of collection is not supported in field " + field);
-					return null;
-				} else {
-					return (Class<?>) realType;
+		}
+		Object element = generate(componentType, fieldPlan);
+		if (array instanceof int[]) {
+			Arrays.fill((int[]) array, (Integer) element);
+		} else if (array instanceof long[]) {
+			Arrays.fill((long[]) array, (Long) element);
+		} else if (array instanceof double[]) {
+			Arrays.fill((double[]) array, (Double) element);
+		} else if (array instanceof byte[]) {
+			Arrays.fill((byte[]) array, (Byte) element);
+		} else if (array instanceof char[]) {
+			Arrays.fill((char[]) array, (Character) element);
+		} else if (array instanceof float[]) {
+			Arrays.fill((float[]) array, (Float) element);
+		} else if (array instanceof short[]) {
+			Arrays.fill((short[]) array, (Short) element);
+		} else if (array instanceof boolean[]) {
+			Arrays.fill((boolean[]) array, (Boolean) element);
+		}
+		return array;
+	}
+
+	private void processAnnotations(Class<?> clasz){
+		if (processedClasses.add(clasz)) {
+			for (Map.Entry<Field, Data> entry : GenerationPlan.of(clasz).getMetaData().entrySet()) {
+				fieldDataStore.setData(entry.getKey(), new FieldData(entry.getValue()));
+			}
+		}
+	}
+
+	private TypeInfo getTypeInfo(Class<?> cls) {
+		TypeInfo info = typeInfoCache.get(cls);
+		if (info == null) {
+			info = new TypeInfo(cls, xstream);
+			TypeInfo existing = typeInfoCache.putIfAbsent(cls, info);
+			if (existing != null) {
+				info = existing;
+			}
+		}
+		return info;
+	}
+
+	/**
+	 * Generates independent record: aliases and recursion counters left by previously generated records are discarded.
+	 * @param recordIndex index of the record, used in deterministic mode only
+	 */
+	<T> T generateRecord(Class<T> cls, long recordIndex) {
+		recursionCounter.resetAll();
+		fieldDataStore.resetAliases();
+		if (seed != null) {
+			return generateDeterministic(cls, recordIndex);
+		}
+		return generate(cls);
+	}
+
+	/**
+	 * Generates record number recordIndex of the data set defined by the seed in constant time, see {@link #setSeed(Long)}.
+	 * The record is independent of any previously generated record.
+	 * @param cls class of generated record
+	 * @param recordIndex index of the record
+	 * @return generated record
+	 */
+	public <T> T generate(Class<T> cls, long recordIndex) {
+		if (seed == null) {
+			throw new IllegalStateException("Records can be generated by index in deterministic mode only, seed should be set");
+		}
+		return generateRecord(cls, recordIndex);
+	}
+
+	private <T> T generateDeterministic(Class<T> cls, long recordIndex) {
+		pathKey = CounterRandomSource.combine(seed, recordIndex);
+		RandomSource previous = RandomSources.bind(counterSource);
+		try {
+			return generateWithAliases(cls);
+		} finally {
+			RandomSources.bind(previous);
+		}
+	}
+
+	/**
+	 * Creates lazy stream of generated records. Records are generated one by one while the stream is consumed,
+	 * each record has its own aliases. The stream is splittable and can be processed in parallel,
+	 * this generator instance is used as a configuration template only and is not modified.
+	 * @param cls class of generated records
+	 * @param count number of records
+	 * @return stream of generated records
+	 */
+	public <T> Stream<T> stream(Class<T> cls, long count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Records count can't be negative: " + count);
+		}
+		return StreamSupport.stream(new RecordSpliterator<>(fork(), cls, 0, count, true), false);
+	}
+
+	/**
+	 * Creates unbounded lazy stream of generated records, should be limited by the consumer.
+	 * @see #stream(Class, long)
+	 * @param cls class of generated records
+	 * @return stream of generated records
+	 */
+	public <T> Stream<T> stream(Class<T> cls) {
+		return StreamSupport.stream(new RecordSpliterator<>(fork(), cls, 0, Long.MAX_VALUE, false), false);
+	}
+
+	/**
+	 * Generates records in parallel using {@link ForkJoinPool#commonPool()}.
+	 * @see #generateParallel(Class, int, Executor)
+	 * @param cls class of generated records
+	 * @param count number of records
+	 * @return list of generated records
+	 */
+	public <T> List<T> generateParallel(Class<T> cls, int count) {
+		return generateParallel(cls, count, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Generates records in parallel. Records are split into ranges, every range is generated by its own
+	 * {@link DataGenerator} fork, so workers share only immutable class plans and registered generators.
+	 * Each record has its own aliases. Registered generators should be thread-safe.
+	 * @param cls class of generated records
+	 * @param count number of records
+	 * @param executor executor to run generation on, {@link ForkJoinPool} splits the work recursively
+	 * @return list of generated records in the order of their index
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> generateParallel(Class<T> cls, int count, Executor executor) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Records count can't be negative: " + count);
+		}
+		Object[] records = new Object[count];
+		int parallelism = (executor instanceof ForkJoinPool) ?
+				((ForkJoinPool) executor).getParallelism() : Runtime.getRuntime().availableProcessors();
+		int batchSize = Math.max(1, count / (parallelism * 4));
+		if (executor instanceof ForkJoinPool) {
+			((ForkJoinPool) executor).invoke(new RecordGenerationTask(this, cls, records, 0, count, batchSize));
+		} else {
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			for (int from = 0; from < count; from += batchSize) {
+				futures.add(CompletableFuture.runAsync(
+						new RecordGenerationTask(this, cls, records, from, Math.min(count, from + batchSize), batchSize), executor));
+			}
+			try {
+				CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
 				}
+				throw e;
 			}
 		}
-		return String.class;
+		return (List<T>) Arrays.asList(records);
 	}
 
 	public <T> T generate(Class<T> cls) {
+		if (seed != null) {
+			return generateRecord(cls, nextRecordIndex++);
+		}
+		if (randomSource == null) {
+			return generateWithAliases(cls);
+		}
+		RandomSource previous = RandomSources.bind(randomSource);
+		try {
+			return generateWithAliases(cls);
+		} finally {
+			RandomSources.bind(previous);
+		}
+	}
 
+	private <T> T generateWithAliases(Class<T> cls) {
+		long start = (listener != GenerationListener.NO_OP) ? System.nanoTime() : 0;
 		T obj = generate(cls, null);
 		
 		if (fieldDataStore.getAliases().size()>0 ){
-			boolean dataAliasesFound = false;
-			Class<?> clz = cls;
-			do {
-				for (Field field : clz.getDeclaredFields()) {
-					if (field.getType().equals(DataAliases.class)){
-						try {
-							field.setAccessible(true);
-							field.set(obj,fieldDataStore.getAliases());
-							dataAliasesFound = true;
-							break;
-						} catch (IllegalArgumentException | IllegalAccessException e) {
-							throw new RuntimeException(e);
-						}
-					}
-				}
-				clz = clz.getSuperclass();
-			} while(clz != null);
-			
-			if (!dataAliasesFound) {
+			FieldAccessor[] aliasesFields = GenerationPlan.of(cls).getAliasesFields();
+			if (aliasesFields.length == 0) {
 				throw new AliasWriteException("Can't save aliases! The generated class or its supper class should have DataAliases type field declared.");
 			}
+			for (FieldAccessor accessor : aliasesFields) {
+				accessor.set(obj, fieldDataStore.getAliases());
+			}
+		}
+
+		if (listener != GenerationListener.NO_OP) {
+			listener.recordGenerated(cls, System.nanoTime() - start);
 		}
-		
 		return obj;
 	}
 	
-	@SuppressWarnings({ "unchecked", "rawtypes", "restriction" })
-	private <T> T generate(Class<T> cls, Field ffield) {
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private <T> T generate(Class<T> cls, FieldPlan ffield) {
 		processAnnotations(cls);
 
-		Converter conv = xstream.getConverterLookup().lookupConverterForType(cls);
+		TypeInfo typeInfo = getTypeInfo(cls);
+		Converter conv = typeInfo.converter;
+		ConverterKind kind = typeInfo.kind;
+
+		if (typeInfo.builtInValueConverter) {
+			Object typedValue = generateTypedValue(cls, ffield);
+			if (typedValue != null) {
+				return (T) typedValue;
+			}
+		}
 
-		if (conv instanceof DataValueConverter) {
+		if (kind == ConverterKind.DATA_VALUE) {
 			String stringValue = generateValueForField(cls,ffield);
-			return ((DataValueConverter) conv).fromString(stringValue, cls, ffield);
+			return ((DataValueConverter) conv).fromString(stringValue, cls, ffield != null ? ffield.field : null);
 		}
 		
-		if (conv instanceof SingleValueConverter && !(conv instanceof EncodedByteArrayConverter)) {
+		if (kind == ConverterKind.SINGLE_VALUE) {
 			String stringValue = generateValueForField(cls,ffield);
 			Object value = ((SingleValueConverter) conv).fromString(stringValue);
 			return (T) value;
 		}
 
 
-		if (conv instanceof ArrayConverter || conv instanceof CharArrayConverter || conv instanceof EncodedByteArrayConverter){
+		if (kind == ConverterKind.ARRAY){
 			int n = getnArrayForField(ffield);
+			if (cls.getComponentType().isPrimitive()) {
+				T array = (T) generatePrimitiveArray(cls.getComponentType(), n, ffield);
+				recursionCounter.reset(ffield.field);
+				return array;
+			}
 			T array = (T) Array.newInstance(cls.getComponentType(), n);
             Object element = generate(cls.getComponentType(), ffield);
 			for (int i=0; i<n; i++){
@@ -285,13 +605,13 @@ public class DataGenerator {
 				}
 				Array.set(array, i, element);
 			}
-			recursionCounter.reset(ffield);
+			recursionCounter.reset(ffield.field);
 			return array;
 		}
 
 		Class concreteCollectionClass = null;
-		if (cls.isInterface() || Modifier.isAbstract(cls.getModifiers())) {
-			FieldData fieldData = fieldDataStore.getData(ffield);
+		if (typeInfo.plan.isAbstract()) {
+			FieldData fieldData = getFieldData(ffield);
 			if (fieldData!=null && fieldData.clasz()!=null){
 				for (Class<?> clz: fieldData.clasz()){
 					if (cls.isAssignableFrom(clz)){
@@ -300,31 +620,20 @@ public class DataGenerator {
 				}
 			}
 
-			Class[] collection = new Class[]{ArrayList.class, HashSet.class, HashMap.class};
-			for (Class<?> clz: collection){
-				if (cls.isAssignableFrom(clz)) {
-					concreteCollectionClass = clz;
-					conv = xstream.getConverterLookup().lookupConverterForType(clz);
-					break;
-				}
-			}
-
+			concreteCollectionClass = typeInfo.plan.getDefaultImplementation();
 			if (concreteCollectionClass == null) {
-				System.err.println("[WARNING] Please provide implimentation class for " + cls.getCanonicalName() + " field '" + ffield + "'");
+				System.err.println("[WARNING] Please provide implimentation class for " + cls.getCanonicalName() + " field '" + (ffield != null ? ffield.field : null) + "'");
 				return null;
 			}
+			kind = getTypeInfo(concreteCollectionClass).kind;
 		}
 		
-		if (conv instanceof CollectionConverter){
+		if (kind == ConverterKind.COLLECTION){
 			int n = getnArrayForField(ffield);
             Collection collection;
             if (concreteCollectionClass == null) concreteCollectionClass = cls;
-            try {
-            	collection = (Collection) concreteCollectionClass.newInstance();
-			} catch (InstantiationException | IllegalAccessException e) {
-				throw new RuntimeException(e);
-			}
-			Class element = getGenericTypeOrString(ffield,0);
+            collection = (Collection) Accessors.constructor(concreteCollectionClass).newInstance();
+			Class element = (ffield != null) ? ffield.getTypeArgument(0) : String.class;
 			if (element != null) {
 				Object colElement = generate(element, ffield);
 				for (int i = 0; i < n; i++) {
@@ -334,92 +643,171 @@ public class DataGenerator {
 					collection.add(colElement);
 				}
 			}
-			recursionCounter.reset(ffield);
+			if (ffield != null) {
+				recursionCounter.reset(ffield.field);
+			}
 			return (T) collection;
 		}
 		
-		if (conv instanceof MapConverter){
+		if (kind == ConverterKind.MAP){
 			Map map = null;
 			if (concreteCollectionClass == null) concreteCollectionClass = cls;
 			try {
-				map = (Map) concreteCollectionClass.newInstance();
-			} catch (InstantiationException | IllegalAccessException e) {
+				map = (Map) Accessors.constructor(concreteCollectionClass).newInstance();
+			} catch (RuntimeException e) {
 				e.printStackTrace();
 			}
-			Class keyElement = getGenericTypeOrString(ffield, 0);
-			Class valueElement = getGenericTypeOrString(ffield, 1);
+			Class keyElement = (ffield != null) ? ffield.getTypeArgument(0) : String.class;
+			Class valueElement = (ffield != null) ? ffield.getTypeArgument(1) : String.class;
 			if (keyElement!=null && valueElement!=null){
 				if (map != null) {
-					map.put(generate(keyElement, ffield), generate(valueElement, ffield));
+					long parentKey = pathKey;
+					pathKey = CounterRandomSource.combine(parentKey, 0);
+					Object key = generate(keyElement, ffield);
+					pathKey = CounterRandomSource.combine(parentKey, 1);
+					Object value = generate(valueElement, ffield);
+					pathKey = parentKey;
+					map.put(key, value);
 				}
 			}
 			return (T) map;
 		}
 		
-		if (conv instanceof EnumConverter){
-			return cls.getEnumConstants()[Integer.parseInt(generateValueForField(cls,ffield))];
+		if (kind == ConverterKind.ENUM){
+			Object value = generateTypedValue(cls, ffield);
+			if (value != null) {
+				return (T) value;
+			}
+			return (T) toEnumConstant(cls, generateValueForField(cls,ffield));
 		}
 		
-		if (conv instanceof EnumSetConverter){
-			Type type = ffield.getGenericType();
-			if (type instanceof ParameterizedType){
-				Class genType = (Class) ((ParameterizedType)type).getActualTypeArguments()[0];
-				Enum e = (Enum) genType.getEnumConstants()[Integer.parseInt(generateValueForField(genType,ffield))];
+		if (kind == ConverterKind.ENUM_SET){
+			if (ffield.field.getGenericType() instanceof ParameterizedType){
+				Class genType = ffield.getTypeArgument(0);
+				EnumSet set = generateEnumSet(genType, ffield);
+				if (set != null) {
+					return (T) set;
+				}
+				Enum e = (Enum) toEnumConstant(genType, generateValueForField(genType,ffield));
 				return (T) EnumSet.of(e);
 			}
 		}
 		
-		if (conv instanceof ReflectionConverter) {
+		if (kind == ConverterKind.REFLECTION) {
 
-			Object obj = xstream.getReflectionProvider().newInstance(cls);
+			Object obj = typeInfo.instantiator.newInstance();
 
 			if (ffield != null) {
-				if (recursionCounter.getCounter(ffield) < recursionLevel) {
-					recursionCounter.incrementCounter(ffield);
+				if (recursionCounter.getCounter(ffield.field) < recursionLevel) {
+					recursionCounter.incrementCounter(ffield.field);
 				} else {
+					if (listener != GenerationListener.NO_OP) {
+						listener.recursionCutoff(ffield.field);
+					}
 					return (T) obj;
 				}
 			}
 
-			Class superCls = cls;
-			do {
-				for (Field field : superCls.getDeclaredFields()){
-                    if (isInnerClass(field.getType())) {
-                        System.err.println("          Field '" + field.getName() + "' was skipped by generator.");
-                        continue;
-					}
-					field.setAccessible(true);
-					FieldData fieldData = fieldDataStore.getData(field);
-                    if (fieldData != null && fieldData.skip()) {
-                        continue;
-                    }
-					if (field.isAnnotationPresent(XStreamOmitField.class)){
-						continue;
-					}
-					if (Modifier.isStatic(field.getModifiers())){
-						continue;
-					}
-
-					Object value = generate(field.getType(), field);
-					try {
-						field.set(obj, value);
-                    } catch (IllegalArgumentException | IllegalAccessException | NullPointerException e) {
-                        throw new RuntimeException(e);
-                    }
+			for (FieldPlan fieldPlan : typeInfo.plan.getFields()) {
+				FieldData fieldData = getFieldData(fieldPlan);
+				if (fieldData != null && fieldData.skip()) {
+					continue;
+				}
+				long parentKey = pathKey;
+				pathKey = CounterRandomSource.combine(parentKey, fieldPlan.pathHash);
+				Object value = generate(fieldPlan.type, fieldPlan);
+				pathKey = parentKey;
+				try {
+					fieldPlan.accessor.set(obj, value);
+				} catch (ClassCastException | NullPointerException e) {
+					throw new RuntimeException(e);
 				}
-				superCls = superCls.getSuperclass();
-			} while (superCls != null);
+			}
 
 			return (T) obj;
 		}
 		
-		if (conv instanceof DataAliasesConverter) {
+		if (kind == ConverterKind.DATA_ALIASES) {
 			//No data should be generated for DataAliasesConverter
 			return null;
 		}
 
-		System.err.println("[WARNING] Converter type: " + conv.getClass().getName() + ". Can't generate data for field " + ffield);
+		System.err.println("[WARNING] Converter type: " + conv.getClass().getName() + ". Can't generate data for field " + (ffield != null ? ffield.field : null));
 		return null;
 	}
+
+	private enum ConverterKind {
+		DATA_VALUE, SINGLE_VALUE, ARRAY, COLLECTION, MAP, ENUM, ENUM_SET, REFLECTION, DATA_ALIASES, OTHER;
+
+		static ConverterKind of(Converter conv) {
+			if (conv instanceof DataValueConverter) {
+				return DATA_VALUE;
+			}
+			if (conv instanceof SingleValueConverter && !(conv instanceof EncodedByteArrayConverter)) {
+				return SINGLE_VALUE;
+			}
+			if (conv instanceof ArrayConverter || conv instanceof CharArrayConverter || conv instanceof EncodedByteArrayConverter) {
+				return ARRAY;
+			}
+			if (conv instanceof CollectionConverter) {
+				return COLLECTION;
+			}
+			if (conv instanceof MapConverter) {
+				return MAP;
+			}
+			if (conv instanceof EnumConverter) {
+				return ENUM;
+			}
+			if (conv instanceof EnumSetConverter) {
+				return ENUM_SET;
+			}
+			if (conv instanceof ReflectionConverter) {
+				return REFLECTION;
+			}
+			if (conv instanceof DataAliasesConverter) {
+				return DATA_ALIASES;
+			}
+			return OTHER;
+		}
+	}
+
+	/**
+	 * Class plan combined with the converter resolved by this generator's {@link XStream} instance
+	 */
+	private static final class TypeInfo {
+		final GenerationPlan plan;
+		final Converter converter;
+		final ConverterKind kind;
+		final Instantiator instantiator;
+		/**
+		 * True when the value is converted by one of XStream's own single value converters, so it may be generated
+		 * directly as typed value. Values of types with user registered converters always go through the converter.
+		 */
+		final boolean builtInValueConverter;
+
+		TypeInfo(Class<?> cls, XStream xstream) {
+			plan = GenerationPlan.of(cls);
+			converter = xstream.getConverterLookup().lookupConverterForType(cls);
+			kind = ConverterKind.of(converter);
+			builtInValueConverter = kind == ConverterKind.SINGLE_VALUE
+					&& converterClassName(converter).startsWith(XStream.class.getPackage().getName() + ".");
+			instantiator = (kind == ConverterKind.REFLECTION) ? Accessors.allocator(cls) : null;
+		}
+
+		/**
+		 * XStream wraps every registered single value converter, the wrapped converter is reported only as error info.
+		 */
+		private static String converterClassName(Converter converter) {
+			if (converter instanceof SingleValueConverterWrapper) {
+				ConversionException info = new ConversionException("");
+				((SingleValueConverterWrapper) converter).appendErrors(info);
+				String wrapped = info.get("wrapped-converter");
+				if (wrapped != null) {
+					return wrapped;
+				}
+			}
+			return converter.getClass().getName();
+		}
+	}
 	
 }
\ No newline at end of file
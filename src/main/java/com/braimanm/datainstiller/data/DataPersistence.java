@@ -20,20 +20,24 @@ import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
 import com.thoughtworks.xstream.annotations.XStreamOmitField;
-import com.thoughtworks.xstream.converters.extended.ISO8601GregorianCalendarConverter;
-import com.thoughtworks.xstream.security.AnyTypePermission;
 import org.apache.commons.jexl3.JexlContext;
 import org.apache.commons.jexl3.MapContext;
 import org.testng.annotations.Test;
 
 import java.io.*;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Michael Braiman braimanm@gmail.com
@@ -42,8 +46,6 @@ import java.time.format.DateTimeFormatter;
  * All the class members which are not annotated with {@link XStreamOmitField} are serialized and deserialized to and from various formats 
  */
 public abstract class DataPersistence {
-	@XStreamOmitField
-	private JexlContext jexlContext;
 	@Data(skip = true)
     @XStreamAlias("xmlns")
     @XStreamAsAttribute
@@ -58,6 +60,31 @@ public abstract class DataPersistence {
 	protected String schemaLocation;
 	@Data(skip = true)
 	private DataAliases aliases;
+	// false for instances allocated without constructor by XStream, data generators and cloners
+	@XStreamOmitField
+	private transient boolean constructed = true;
+
+	private static final ClassValue<RetainedField[]> RETAINED_FIELDS = new ClassValue<RetainedField[]>() {
+		@Override
+		protected RetainedField[] computeValue(Class<?> type) {
+			List<RetainedField> retainedFields = new ArrayList<>();
+			Class<?> cls = type;
+			do {
+				for (Field field : cls.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers)) {
+						continue;
+					}
+					if (!field.isAnnotationPresent(XStreamOmitField.class) ||
+							(field.isAnnotationPresent(Data.class) && !field.getAnnotation(Data.class).skip())) {
+						retainedFields.add(new RetainedField(field));
+					}
+				}
+				cls = cls.getSuperclass();
+			} while (!cls.equals(DataPersistence.class));
+			return retainedFields.toArray(new RetainedField[0]);
+		}
+	};
 
 	protected DataPersistence() {
 	}
@@ -70,105 +97,75 @@ public abstract class DataPersistence {
 		this.aliases = null;
 	}
 
+	/**
+	 * @return cached serializer of this class shared between all instances and threads, its XStream instance is
+	 * created by {@link #getXstream()}
+	 */
+	protected DataSerializer getSerializer() {
+		return DataSerializer.of(getClass(), constructed ? this : null, null);
+	}
+
+	/**
+	 * @param globalAliases aliases available to alias expressions of every read document
+	 * @return cached serializer of this class and the given global aliases, its XStream instance is created by
+	 * {@link #getXstream(DataAliases)}
+	 */
+	protected DataSerializer getSerializer(DataAliases globalAliases) {
+		return DataSerializer.of(getClass(), constructed ? this : null, globalAliases);
+	}
+
+	/**
+	 * Creates XStream instance of this class. The result is shared by all instances of the class, the hook is called
+	 * once per class by {@link #getSerializer()}. Subclasses might override it to register additional converters or
+	 * aliases, but the configuration must not depend on the state of the instance.
+	 * @return new XStream instance
+	 */
 	protected XStream getXstream() {
 		return getXstream(null);
 	}
 
+	/**
+	 * Creates XStream instance of this class and the given global aliases, called once per class and global aliases
+	 * by {@link #getSerializer(DataAliases)}. The configuration must not depend on the state of the instance.
+	 * @param globalAliases aliases available to alias expressions of every read document
+	 * @return new XStream instance for this class and the given global aliases
+	 */
     protected XStream getXstream(DataAliases globalAliases) {
-		XStream xstream = new XStream();
-		xstream.addPermission(AnyTypePermission.ANY);
-		xstream.registerConverter(new DataAliasesConverter(jexlContext, globalAliases));
-		xstream.registerConverter(new ISO8601GregorianCalendarConverter());
-		xstream.processAnnotations(this.getClass());
-		return xstream;
+		return DataSerializer.newXStream(getClass(), globalAliases);
 	}
 
-	private void initJexlContext() {
-	    JexlContext jContext = new MapContext();
-		jContext.set("AddressGen", new AddressGenerator());
-		jContext.set("AlphaNumericGen", new AlphaNumericGenerator());
-		jContext.set("ListGen", new CustomListGenerator());
-		jContext.set("DateGen", new DateGenerator());
-		jContext.set("HumanNameGen", new HumanNameGenerator());
-		jContext.set("NumberGen", new NumberGenerator());
-		jContext.set("WordGen", new WordGenerator());
-		jContext.set("File2ListGen", new File2ListGenerator());
+	private JexlContext newJexlContext() {
+	    JexlContext jContext = new GeneratorContext();
 		LocalDateTime now = LocalDateTime.now();
 		jContext.set("now", now);
 		jContext.set("DateTimeFormatter", DateTimeFormatter.BASIC_ISO_DATE);
 		initJexlContext(jContext);
-		jexlContext = jContext;
+		return jContext;
 	}
 
 	protected void initJexlContext(JexlContext jexlContext) {
 	}
 
+	/**
+	 * Aliases are normally resolved in a single pass while the document is read. This fallback is used for documents
+	 * where alias tokens precede the aliases element: the object is serialized and read again with substitution.
+	 */
+	@SuppressWarnings("unchecked")
 	private  <T extends DataPersistence> T resolveAliases(T data) {
 		DataAliases aliases = data.getDataAliases();
 		if (aliases != null) {
-			data.removeAliases();
-			String xml = data.toXML();
-			for (String key : aliases.keySet()) {
-				String alias = "${" + key + "}";
-				String value = aliases.getAsString(key);
-				xml = xml.replace(alias, value);
-			}
-			//noinspection unchecked
-			return (T) getXstream().fromXML(xml);
+			return (T) getSerializer().resolveAliases(data);
 		}
 		return data;
 	}
 
 	private <T extends DataPersistence> T retainFields(T target) {
-		Class<?> cls = this.getClass();
-		do {
-			for (Field field : cls.getDeclaredFields()) {
-				field.setAccessible(true);
-				if (!field.isAnnotationPresent(XStreamOmitField.class) ||
-						(field.isAnnotationPresent(Data.class) && !field.getAnnotation(Data.class).skip())) {
-					Object defaultPrimitiveValue = null;
-					if (field.getType().isPrimitive()) {
-						switch (field.getType().getName()) {
-							case "byte":
-								defaultPrimitiveValue = (byte) 0;
-								break;
-							case "short":
-								defaultPrimitiveValue = (short) 0;
-								break;
-							case "int":
-								defaultPrimitiveValue = 0;
-								break;
-							case "long":
-								defaultPrimitiveValue = 0L;
-								break;
-							case "float":
-								defaultPrimitiveValue = 0.0f;
-								break;
-							case "double":
-								defaultPrimitiveValue = 0.0d;
-								break;
-							case "char":
-								defaultPrimitiveValue = '\u0000';
-								break;
-							case "boolean":
-								defaultPrimitiveValue = false;
-								break;
-						}
-					}
-					Object value;
-					try {
-						value = field.get(this);
-						if (value != null) {
-							if (!value.equals(defaultPrimitiveValue)) {
-								field.set(target, value);
-							}
-						}
-					} catch (IllegalAccessException ignore) {}
-				}
+		for (RetainedField retainedField : RETAINED_FIELDS.get(this.getClass())) {
+			Object value = retainedField.accessor.get(this);
+			if (value != null && !value.equals(retainedField.defaultValue)) {
+				retainedField.accessor.set(target, value);
 			}
-
-			cls = cls.getSuperclass();
-		} while (!cls.equals(DataPersistence.class));
+		}
 		return target;
 	}
 
@@ -180,8 +177,7 @@ public abstract class DataPersistence {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends DataPersistence> T fromXml(String xml, boolean resolveAliases) {
-		initJexlContext();
-		T data = (T) getXstream().fromXML(xml);
+		T data = (T) getSerializer().fromXML(xml, newJexlContext(), resolveAliases);
 		if (resolveAliases) {
 			data = resolveAliases(data);
 		}
@@ -200,8 +196,7 @@ public abstract class DataPersistence {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends DataPersistence> T fromURL(URL url, boolean resolveAliases) {
-		initJexlContext();
-		T data=(T) getXstream().fromXML(url);
+		T data = (T) getSerializer().fromURL(url, newJexlContext(), resolveAliases);
 		if (resolveAliases) {
 			data = resolveAliases(data);
 		}
@@ -221,8 +216,7 @@ public abstract class DataPersistence {
 	
 	@SuppressWarnings("unchecked")
 	public <T extends DataPersistence> T fromInputStream(InputStream inputStream, boolean resolveAliases) {
-		initJexlContext();
-		T data=(T) getXstream().fromXML(inputStream);
+		T data = (T) getSerializer().fromInputStream(inputStream, newJexlContext(), resolveAliases);
 		if (resolveAliases) {
 			data = resolveAliases(data);
 		}
@@ -263,12 +257,11 @@ public abstract class DataPersistence {
 	 */
 	@SuppressWarnings("unchecked")
 	public  <T extends DataPersistence> T fromFile(String filePath, boolean resolveAliases){
-		initJexlContext();
 		File file=new File(filePath);
 		if (!file.exists()){
 			throw new RuntimeException("File " + filePath + " was not found");
 		}
-		T data=(T) getXstream().fromXML(file);
+		T data=(T) getSerializer().fromFile(file, newJexlContext(), resolveAliases);
 		if (resolveAliases) {
 			data = resolveAliases(data);
 		}
@@ -285,8 +278,7 @@ public abstract class DataPersistence {
 	 */
 	public String toXML(){
 		String header="<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n\n";
-		XStream xstream=getXstream();
-		String xml = xstream.toXML(this).replaceAll(" xmlns=.*", ">"); // Remove xml namespaces;
+		String xml = getSerializer().toXML(this).replaceAll(" xmlns=.*", ">"); // Remove xml namespaces;
 		return header + xml;
 	}
 	
@@ -295,7 +287,7 @@ public abstract class DataPersistence {
 	 * @param filePath file path to serialize this object
 	 */
 	public void toFile(String filePath){
-		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n\n" + getXstream().toXML(this);
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n\n" + getSerializer().toXML(this);
 		try {
 			Files.write(Paths.get(filePath), xml.getBytes(StandardCharsets.UTF_8));
 		} catch (IOException e) {
@@ -309,21 +301,71 @@ public abstract class DataPersistence {
 	 * @param target object to copy to
 	 */
 	public void deepCopy(DataPersistence source, DataPersistence target){
-		XStream xstream=getXstream();
-		String xml=xstream.toXML(source);
-		xstream.fromXML(xml,target);
+		getSerializer().deepCopy(source, target);
 	}
 	
 	public void generateData(){
-		DataPersistence obj = new DataGenerator(getXstream()).generate(this.getClass());
+		DataPersistence obj = newDataGenerator().generate(this.getClass());
 		deepCopy(obj, this);
 	}
 	
 	public String generateXML(){
-		DataPersistence obj = new DataGenerator(getXstream()).generate(this.getClass());
+		DataPersistence obj = newDataGenerator().generate(this.getClass());
 		return obj.toXML();
 	}
 
+	private DataGenerator newDataGenerator() {
+		return getSerializer().newDataGenerator();
+	}
+
+	/**
+	 * JEXL context where generator variables like "AddressGen" are the shared generators of
+	 * {@link GeneratorRegistry#getDefault()}, resolved on first use. Variables set in the context take precedence.
+	 */
+	private static final class GeneratorContext extends MapContext {
+		private static final Map<String, String> GENERATOR_VARIABLES = new HashMap<>();
+
+		static {
+			GENERATOR_VARIABLES.put("AddressGen", "ADDRESS");
+			GENERATOR_VARIABLES.put("AlphaNumericGen", "ALPHANUMERIC");
+			GENERATOR_VARIABLES.put("ListGen", "CUSTOM_LIST");
+			GENERATOR_VARIABLES.put("DateGen", "DATE");
+			GENERATOR_VARIABLES.put("HumanNameGen", "HUMAN_NAMES");
+			GENERATOR_VARIABLES.put("NumberGen", "NUMBER");
+			GENERATOR_VARIABLES.put("WordGen", "WORD");
+			GENERATOR_VARIABLES.put("File2ListGen", "FILE2LIST");
+			GENERATOR_VARIABLES.put("File2RowGen", "FILE2ROW");
+			GENERATOR_VARIABLES.put("RandomGen", "RANDOM");
+		}
+
+		@Override
+		public boolean has(String name) {
+			return super.has(name) || GENERATOR_VARIABLES.containsKey(name);
+		}
+
+		@Override
+		public Object get(String name) {
+			if (!super.has(name)) {
+				String generatorType = GENERATOR_VARIABLES.get(name);
+				if (generatorType != null) {
+					return GeneratorRegistry.getDefault().get(generatorType);
+				}
+			}
+			return super.get(name);
+		}
+	}
+
+	private static final class RetainedField {
+		final FieldAccessor accessor;
+		final Object defaultValue;
+
+		RetainedField(Field field) {
+			accessor = Accessors.forField(field);
+			// default value of primitive fields is never retained
+			defaultValue = field.getType().isPrimitive() ? Array.get(Array.newInstance(field.getType(), 1), 0) : null;
+		}
+	}
+
 	//Allows to generate data using IDE
 	@Test
 	protected void generate() {
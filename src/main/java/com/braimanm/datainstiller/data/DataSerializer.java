@@ -0,0 +1,415 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.braimanm.datainstiller.data;
+
+import com.braimanm.datainstiller.generators.BoundedCache;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.extended.ISO8601GregorianCalendarConverter;
+import com.thoughtworks.xstream.core.MapBackedDataHolder;
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.xml.XppDriver;
+import com.thoughtworks.xstream.security.AnyTypePermission;
+import org.apache.commons.jexl3.JexlContext;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.URL;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Pre-configured XStream serializer of {@link DataPersistence} class. Serializers are created once per class and
+ * global aliases configuration and are safe to share between threads. The XStream instance of a {@link DataPersistence}
+ * class is built by the {@link DataPersistence#getXstream()} hook of the first instance which asks for the serializer,
+ * so subclasses overriding the hook to register converters or aliases keep working. Per call state, the JEXL context
+ * used to evaluate alias expressions, is passed to every read method and reaches {@link DataAliasesConverter} through
+ * XStream data holder. The shared {@link XStream} instance must not be reconfigured after the serializer is created.
+ */
+public final class DataSerializer {
+	private static final int MAX_GLOBAL_ALIASES_PER_CLASS = 16;
+
+	private static final ClassValue<BoundedCache<Map<String, Object>, DataSerializer>> SERIALIZERS =
+			new ClassValue<BoundedCache<Map<String, Object>, DataSerializer>>() {
+		@Override
+		protected BoundedCache<Map<String, Object>, DataSerializer> computeValue(Class<?> type) {
+			return new BoundedCache<>(MAX_GLOBAL_ALIASES_PER_CLASS);
+		}
+	};
+
+	private final Class<?> type;
+	private final HierarchicalStreamDriver driver = new XppDriver();
+	private final XStream xstream;
+	private final ObjectCloner cloner;
+	private final DataGenerator generatorTemplate;
+	private volatile GenerationListener listener = GenerationListener.NO_OP;
+
+	/**
+	 * Creates not cached serializer.
+	 * @param type data class
+	 * @param xstream configured XStream instance which is owned by the serializer from now on
+	 */
+	public DataSerializer(Class<?> type, XStream xstream) {
+		this.type = type;
+		this.xstream = xstream;
+		cloner = new ObjectCloner(xstream);
+		generatorTemplate = new DataGenerator(xstream);
+	}
+
+	/**
+	 * @param type data class
+	 * @param globalAliases aliases available to alias expressions of every read document, might be null
+	 * @return new XStream instance configured for the given class
+	 */
+	public static XStream newXStream(Class<?> type, DataAliases globalAliases) {
+		XStream xstream = new XStream();
+		xstream.addPermission(AnyTypePermission.ANY);
+		xstream.registerConverter(new DataAliasesConverter(globalAliases));
+		xstream.registerConverter(new ISO8601GregorianCalendarConverter());
+		xstream.processAnnotations(type);
+		return xstream;
+	}
+
+	/**
+	 * @param type data class
+	 * @return cached serializer of the given class, classes overriding {@link DataPersistence#getXstream()} get
+	 * the serializer built by the hook once any instance of the class asked for it, see {@link #of(Class, DataAliases)}
+	 */
+	public static DataSerializer of(Class<?> type) {
+		return of(type, null, null);
+	}
+
+	/**
+	 * The hook of {@link DataPersistence} class needs an instance, until any instance of a class which overrides the hook
+	 * asks for its serializer this method returns not cached serializer with the default configuration.
+	 * @param type data class
+	 * @param globalAliases aliases available to alias expressions of every read document, might be null
+	 * @return cached serializer of the given class and global aliases, serializers are cached by content of the aliases
+	 */
+	public static DataSerializer of(Class<?> type, DataAliases globalAliases) {
+		return of(type, null, globalAliases);
+	}
+
+	/**
+	 * @param type data class
+	 * @param data constructed instance whose hook creates XStream instance if the serializer is not cached yet,
+	 * might be null
+	 * @param globalAliases aliases available to alias expressions of every read document, might be null
+	 * @return cached serializer of the given class and global aliases
+	 */
+	static DataSerializer of(Class<?> type, DataPersistence data, DataAliases globalAliases) {
+		Map<String, Object> key = (globalAliases != null) ? new HashMap<>(globalAliases) : Collections.emptyMap();
+		BoundedCache<Map<String, Object>, DataSerializer> serializers = SERIALIZERS.get(type);
+		DataSerializer serializer = serializers.get(key);
+		if (serializer != null) {
+			return serializer;
+		}
+		if (data == null && overridesXstreamHook(type)) {
+			return new DataSerializer(type, newXStream(type, copyOf(key)));
+		}
+		synchronized (serializers) {
+			serializer = serializers.get(key);
+			if (serializer == null) {
+				serializer = serializers.put(key, new DataSerializer(type, createXStream(type, data, key)));
+			}
+			return serializer;
+		}
+	}
+
+	private static XStream createXStream(Class<?> type, DataPersistence data, Map<String, Object> globalAliases) {
+		if (data == null) {
+			return newXStream(type, copyOf(globalAliases));
+		}
+		return globalAliases.isEmpty() ? data.getXstream() : data.getXstream(copyOf(globalAliases));
+	}
+
+	private static DataAliases copyOf(Map<String, Object> globalAliases) {
+		if (globalAliases.isEmpty()) {
+			return null;
+		}
+		DataAliases aliases = new DataAliases();
+		aliases.putAll(globalAliases);
+		return aliases;
+	}
+
+	private static boolean overridesXstreamHook(Class<?> type) {
+		for (Class<?> cls = type; cls != null && cls != DataPersistence.class; cls = cls.getSuperclass()) {
+			for (Method method : cls.getDeclaredMethods()) {
+				if (method.getName().equals("getXstream") && !method.isSynthetic()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * @return shared XStream instance of this serializer, must not be reconfigured
+	 */
+	public XStream getXStream() {
+		return xstream;
+	}
+
+	public GenerationListener getGenerationListener() {
+		return listener;
+	}
+
+	/**
+	 * Sets listener which receives serialization, parsing, alias resolution, deep copy and data generation events
+	 * of this serializer, data generators created afterwards by {@link #newDataGenerator()} share the listener.
+	 * @param listener listener to set, null switches back to {@link GenerationListener#NO_OP}
+	 */
+	public void setGenerationListener(GenerationListener listener) {
+		this.listener = (listener != null) ? listener : GenerationListener.NO_OP;
+	}
+
+	/**
+	 * @return new data generator sharing this serializer's XStream, resolved type information and listener
+	 */
+	DataGenerator newDataGenerator() {
+		DataGenerator generator = generatorTemplate.fork();
+		generator.setGenerationListener(listener);
+		return generator;
+	}
+
+	/**
+	 * Copies all fields of the source object to the target object
+	 * @param source object to copy from
+	 * @param target object to copy to
+	 */
+	public void deepCopy(Object source, Object target) {
+		GenerationListener listener = this.listener;
+		if (listener != GenerationListener.NO_OP) {
+			listener.deepCopied(source.getClass());
+		}
+		cloner.deepCopy(source, target);
+	}
+
+	/**
+	 * @param xml XML document
+	 * @param jexlContext context of alias expressions, might be null
+	 * @return deserialized object
+	 */
+	public Object fromXML(String xml, JexlContext jexlContext) {
+		return fromXML(xml, jexlContext, false);
+	}
+
+	/**
+	 * @param xml XML document
+	 * @param jexlContext context of alias expressions, might be null
+	 * @param resolveAliases replace "${alias}" tokens with values of the document aliases while reading
+	 * @return deserialized object, aliases of resolved {@link DataPersistence} are removed unless the document
+	 * needs to be resolved by the caller because tokens precede the aliases
+	 */
+	public Object fromXML(String xml, JexlContext jexlContext, boolean resolveAliases) {
+		long start = System.nanoTime();
+		Object data = read(driver.createReader(new StringReader(xml)), jexlContext, resolveAliases, true);
+		notifyParsed(start, (listener != GenerationListener.NO_OP) ? utf8Length(xml) : 0);
+		return data;
+	}
+
+	public Object fromURL(URL url, JexlContext jexlContext) {
+		return fromURL(url, jexlContext, false);
+	}
+
+	public Object fromURL(URL url, JexlContext jexlContext, boolean resolveAliases) {
+		if (listener == GenerationListener.NO_OP) {
+			return read(driver.createReader(url), jexlContext, resolveAliases, true);
+		}
+		long start = System.nanoTime();
+		try (CountingInputStream inputStream = new CountingInputStream(url.openStream())) {
+			Object data = read(driver.createReader(inputStream), jexlContext, resolveAliases, false);
+			notifyParsed(start, inputStream.count);
+			return data;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @param inputStream stream to read the document from, the stream is not closed
+	 * @param jexlContext context of alias expressions, might be null
+	 * @return deserialized object
+	 */
+	public Object fromInputStream(InputStream inputStream, JexlContext jexlContext) {
+		return fromInputStream(inputStream, jexlContext, false);
+	}
+
+	public Object fromInputStream(InputStream inputStream, JexlContext jexlContext, boolean resolveAliases) {
+		if (listener == GenerationListener.NO_OP) {
+			return read(driver.createReader(inputStream), jexlContext, resolveAliases, false);
+		}
+		long start = System.nanoTime();
+		CountingInputStream countingStream = new CountingInputStream(inputStream);
+		Object data = read(driver.createReader(countingStream), jexlContext, resolveAliases, false);
+		notifyParsed(start, countingStream.count);
+		return data;
+	}
+
+	public Object fromFile(File file, JexlContext jexlContext) {
+		return fromFile(file, jexlContext, false);
+	}
+
+	public Object fromFile(File file, JexlContext jexlContext, boolean resolveAliases) {
+		long start = System.nanoTime();
+		Object data = read(driver.createReader(file), jexlContext, resolveAliases, true);
+		notifyParsed(start, file.length());
+		return data;
+	}
+
+	/**
+	 * Serializes the object without its aliases and reads it again replacing "${alias}" tokens with values of
+	 * the aliases. Used for documents where alias tokens precede the aliases element.
+	 * @param data object with aliases
+	 * @return resolved object
+	 */
+	Object resolveAliases(DataPersistence data) {
+		long start = System.nanoTime();
+		DataAliases aliases = data.getDataAliases();
+		data.removeAliases();
+		Object resolved = fromXML(data.toXML(), aliases);
+		GenerationListener listener = this.listener;
+		if (listener != GenerationListener.NO_OP) {
+			listener.aliasesResolved(type, System.nanoTime() - start);
+		}
+		return resolved;
+	}
+
+	/**
+	 * Reads document replacing "${alias}" tokens with values of the given aliases
+	 */
+	private Object fromXML(String xml, DataAliases aliases) {
+		HierarchicalStreamReader reader = new AliasSubstitutingReader(driver.createReader(new StringReader(xml)), aliases);
+		try {
+			return xstream.unmarshal(reader, null, new MapBackedDataHolder());
+		} finally {
+			reader.close();
+		}
+	}
+
+	private Object read(HierarchicalStreamReader reader, JexlContext jexlContext, boolean resolveAliases, boolean close) {
+		try {
+			MapBackedDataHolder dataHolder = new MapBackedDataHolder();
+			if (jexlContext != null) {
+				dataHolder.put(DataAliasesConverter.JEXL_CONTEXT, jexlContext);
+			}
+			if (!resolveAliases) {
+				return xstream.unmarshal(reader, null, dataHolder);
+			}
+			AliasSubstitutingReader substitutingReader = new AliasSubstitutingReader(reader);
+			dataHolder.put(AliasSubstitutingReader.KEY, substitutingReader);
+			Object data = xstream.unmarshal(substitutingReader, null, dataHolder);
+			if (data instanceof DataPersistence && !substitutingReader.hasPendingTokens()) {
+				((DataPersistence) data).removeAliases();
+			}
+			return data;
+		} finally {
+			if (close) {
+				reader.close();
+			}
+		}
+	}
+
+	/**
+	 * @param data object to serialize
+	 * @return XML representation of the object without XML declaration
+	 */
+	public String toXML(Object data) {
+		long start = System.nanoTime();
+		String xml = xstream.toXML(data);
+		GenerationListener listener = this.listener;
+		if (listener != GenerationListener.NO_OP) {
+			listener.serialized(data.getClass(), utf8Length(xml), System.nanoTime() - start);
+		}
+		return xml;
+	}
+
+	/**
+	 * @param data object to serialize
+	 * @param writer writer to serialize to, the writer is flushed but not closed
+	 */
+	public void toXML(Object data, Writer writer) {
+		xstream.toXML(data, writer);
+	}
+
+	private void notifyParsed(long start, long bytes) {
+		GenerationListener listener = this.listener;
+		if (listener != GenerationListener.NO_OP) {
+			listener.parsed(type, bytes, System.nanoTime() - start);
+		}
+	}
+
+	private static long utf8Length(String text) {
+		long length = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800 || Character.isSurrogate(c)) {
+				// surrogate pair is encoded by 4 bytes
+				length += 2;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	private static final class CountingInputStream extends FilterInputStream {
+		long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
+}
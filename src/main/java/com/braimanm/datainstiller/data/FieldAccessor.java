@@ -0,0 +1,37 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Reads and writes a single field. Accessors are created once per field by {@link AccessorFactory}
+ * and used by data generation, field retaining and object cloning instead of {@link java.lang.reflect.Field}.
+ */
+public interface FieldAccessor {
+	/**
+	 * @param target object to read the field from, ignored for static fields
+	 * @return field value, primitives are boxed
+	 */
+	Object get(Object target);
+
+	/**
+	 * @param target object to write the field to, ignored for static fields
+	 * @param value new field value, primitives should be passed as their exact wrapper type
+	 */
+	void set(Object target, Object value);
+}
@@ -37,6 +37,10 @@ public class FieldDataStore {
 	public void setAliases(DataAliases aliases) {
 		this.aliases.putAll(aliases);
 	}
+
+	void resetAliases() {
+		aliases = new DataAliases();
+	}
 	
 	private Field getFieldFromClass(Class<?> clasz, String fieldName){
 		for (Field field : clasz.getDeclaredFields()){
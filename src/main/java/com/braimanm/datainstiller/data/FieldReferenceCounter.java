@@ -34,4 +34,8 @@ public class FieldReferenceCounter {
     public void reset(Field field) {
         fieldClasses.put(getKey(field), 0);
     }
+
+    public void resetAll() {
+        fieldClasses.clear();
+    }
 }
@@ -0,0 +1,83 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+import com.braimanm.datainstiller.generators.GeneratorInterface;
+
+import java.lang.reflect.Field;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Receives generation and persistence events from {@link DataGenerator} and {@link DataPersistence}.
+ * All methods do nothing by default. When {@link #NO_OP} listener is set no timing is done at all.
+ * Listeners shared by parallel generation should be thread-safe, see {@link GenerationMetrics}.
+ */
+public interface GenerationListener {
+	GenerationListener NO_OP = new GenerationListener() {
+	};
+
+	/**
+	 * @param cls class of generated record
+	 * @param nanos time spent generating the record including all nested objects
+	 */
+	default void recordGenerated(Class<?> cls, long nanos) {
+	}
+
+	/**
+	 * @param field annotated field the value was generated for
+	 * @param generator generator used to generate the value
+	 * @param nanos time spent in the generator
+	 */
+	default void valueGenerated(Field field, GeneratorInterface generator, long nanos) {
+	}
+
+	/**
+	 * @param cls class of deep copied object
+	 */
+	default void deepCopied(Class<?> cls) {
+	}
+
+	/**
+	 * @param field field which was left empty because recursion level was reached
+	 */
+	default void recursionCutoff(Field field) {
+	}
+
+	/**
+	 * @param cls class of serialized object
+	 * @param bytes size of the produced XML in bytes
+	 * @param nanos time spent serializing
+	 */
+	default void serialized(Class<?> cls, long bytes, long nanos) {
+	}
+
+	/**
+	 * @param cls class the XML was parsed by
+	 * @param bytes size of the parsed XML in bytes
+	 * @param nanos time spent parsing
+	 */
+	default void parsed(Class<?> cls, long bytes, long nanos) {
+	}
+
+	/**
+	 * @param cls class of the object which aliases were resolved
+	 * @param nanos time spent resolving aliases
+	 */
+	default void aliasesResolved(Class<?> cls, long nanos) {
+	}
+}
@@ -0,0 +1,189 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+import com.braimanm.datainstiller.generators.GeneratorInterface;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Thread-safe {@link GenerationListener} which records all events into {@link LatencyHistogram}s
+ * (time in nanoseconds, sizes in bytes). {@link #report()} lists the slowest fields and generators first.
+ */
+public class GenerationMetrics implements GenerationListener {
+	private final ConcurrentMap<Class<?>, LatencyHistogram> recordTimes = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Field, LatencyHistogram> fieldTimes = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<?>, LatencyHistogram> classTimes = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<?>, LatencyHistogram> generatorTimes = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<?>, LongAdder> deepCopies = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Field, LongAdder> recursionCutoffs = new ConcurrentHashMap<>();
+	private final LatencyHistogram serializationTimes = new LatencyHistogram();
+	private final LatencyHistogram serializedBytes = new LatencyHistogram();
+	private final LatencyHistogram parsingTimes = new LatencyHistogram();
+	private final LatencyHistogram parsedBytes = new LatencyHistogram();
+	private final LatencyHistogram aliasResolutionTimes = new LatencyHistogram();
+
+	private static <K> LatencyHistogram histogram(ConcurrentMap<K, LatencyHistogram> map, K key) {
+		LatencyHistogram histogram = map.get(key);
+		return (histogram != null) ? histogram : map.computeIfAbsent(key, k -> new LatencyHistogram());
+	}
+
+	private static <K> void increment(ConcurrentMap<K, LongAdder> map, K key) {
+		LongAdder adder = map.get(key);
+		if (adder == null) {
+			adder = map.computeIfAbsent(key, k -> new LongAdder());
+		}
+		adder.increment();
+	}
+
+	@Override
+	public void recordGenerated(Class<?> cls, long nanos) {
+		histogram(recordTimes, cls).record(nanos);
+	}
+
+	@Override
+	public void valueGenerated(Field field, GeneratorInterface generator, long nanos) {
+		histogram(fieldTimes, field).record(nanos);
+		histogram(classTimes, field.getDeclaringClass()).record(nanos);
+		histogram(generatorTimes, generator.getClass()).record(nanos);
+	}
+
+	@Override
+	public void deepCopied(Class<?> cls) {
+		increment(deepCopies, cls);
+	}
+
+	@Override
+	public void recursionCutoff(Field field) {
+		increment(recursionCutoffs, field);
+	}
+
+	@Override
+	public void serialized(Class<?> cls, long bytes, long nanos) {
+		serializationTimes.record(nanos);
+		serializedBytes.record(bytes);
+	}
+
+	@Override
+	public void parsed(Class<?> cls, long bytes, long nanos) {
+		parsingTimes.record(nanos);
+		parsedBytes.record(bytes);
+	}
+
+	@Override
+	public void aliasesResolved(Class<?> cls, long nanos) {
+		aliasResolutionTimes.record(nanos);
+	}
+
+	/**
+	 * @return generation time of whole records per record class
+	 */
+	public Map<Class<?>, LatencyHistogram> getRecordTimes() {
+		return Collections.unmodifiableMap(recordTimes);
+	}
+
+	/**
+	 * @return generator time per annotated field, the histogram count is the number of generated values
+	 */
+	public Map<Field, LatencyHistogram> getFieldTimes() {
+		return Collections.unmodifiableMap(fieldTimes);
+	}
+
+	/**
+	 * @return generator time of all annotated fields declared by the class
+	 */
+	public Map<Class<?>, LatencyHistogram> getClassTimes() {
+		return Collections.unmodifiableMap(classTimes);
+	}
+
+	/**
+	 * @return time per {@link GeneratorInterface} implementation
+	 */
+	public Map<Class<?>, LatencyHistogram> getGeneratorTimes() {
+		return Collections.unmodifiableMap(generatorTimes);
+	}
+
+	public Map<Class<?>, LongAdder> getDeepCopies() {
+		return Collections.unmodifiableMap(deepCopies);
+	}
+
+	public Map<Field, LongAdder> getRecursionCutoffs() {
+		return Collections.unmodifiableMap(recursionCutoffs);
+	}
+
+	public LatencyHistogram getSerializationTimes() {
+		return serializationTimes;
+	}
+
+	public LatencyHistogram getSerializedBytes() {
+		return serializedBytes;
+	}
+
+	public LatencyHistogram getParsingTimes() {
+		return parsingTimes;
+	}
+
+	public LatencyHistogram getParsedBytes() {
+		return parsedBytes;
+	}
+
+	public LatencyHistogram getAliasResolutionTimes() {
+		return aliasResolutionTimes;
+	}
+
+	/**
+	 * @return human readable report, fields and generators are sorted by total time descending
+	 */
+	public String report() {
+		StringBuilder report = new StringBuilder();
+		appendSection(report, "Records", recordTimes, Class::getName);
+		appendSection(report, "Fields", fieldTimes, field -> field.getDeclaringClass().getName() + "." + field.getName());
+		appendSection(report, "Classes", classTimes, Class::getName);
+		appendSection(report, "Generators", generatorTimes, Class::getName);
+		deepCopies.forEach((cls, n) -> report.append("Deep copies ").append(cls.getName()).append(": ").append(n).append('\n'));
+		recursionCutoffs.forEach((field, n) -> report.append("Recursion cutoffs ").append(field.getDeclaringClass().getName())
+				.append('.').append(field.getName()).append(": ").append(n).append('\n'));
+		report.append("Serialization: ").append(serializationTimes).append('\n');
+		report.append("Serialized bytes: ").append(serializedBytes).append('\n');
+		report.append("Parsing: ").append(parsingTimes).append('\n');
+		report.append("Parsed bytes: ").append(parsedBytes).append('\n');
+		report.append("Alias resolution: ").append(aliasResolutionTimes).append('\n');
+		return report.toString();
+	}
+
+	private static <K> void appendSection(StringBuilder report, String title, Map<K, LatencyHistogram> histograms,
+			Function<K, String> name) {
+		report.append(title).append(":\n");
+		histograms.entrySet().stream()
+				.sorted(Comparator.comparingLong((Map.Entry<K, LatencyHistogram> e) -> e.getValue().getTotal()).reversed())
+				.forEach(e -> report.append("  ").append(name.apply(e.getKey())).append(": ").append(e.getValue()).append('\n'));
+	}
+
+	@Override
+	public String toString() {
+		return report();
+	}
+}
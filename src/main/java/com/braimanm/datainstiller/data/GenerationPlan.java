@@ -0,0 +1,268 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+import com.thoughtworks.xstream.annotations.XStreamOmitField;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Immutable result of the reflective discovery {@link DataGenerator} performs for a class: the ordered list of
+ * generated fields with their {@link Data} annotations, generic element types, {@link MetaData} entries, the
+ * default implementation of abstract collection types, the persisted fields used for cloning and the fields holding
+ * {@link DataAliases}.
+ * Plans are compiled once per class and kept in a {@link ClassValue}, so they do not pin class loaders.
+ */
+final class GenerationPlan {
+	private static final ClassValue<GenerationPlan> PLANS = new ClassValue<GenerationPlan>() {
+		@Override
+		protected GenerationPlan computeValue(Class<?> type) {
+			return new GenerationPlan(type);
+		}
+	};
+	private static final Class<?>[] DEFAULT_IMPLEMENTATIONS = {ArrayList.class, HashSet.class, HashMap.class};
+
+	private final Class<?> type;
+	private final boolean abstractType;
+	private final Class<?> defaultImplementation;
+	private final Map<Field, Data> metaData;
+	private volatile FieldPlan[] fields;
+	private volatile FieldAccessor[] aliasesFields;
+	private volatile FieldAccessor[] persistentFields;
+
+	private GenerationPlan(Class<?> type) {
+		this.type = type;
+		abstractType = !type.isArray() && (type.isInterface() || Modifier.isAbstract(type.getModifiers()));
+		Class<?> implementation = null;
+		if (abstractType) {
+			for (Class<?> clz : DEFAULT_IMPLEMENTATIONS) {
+				if (type.isAssignableFrom(clz)) {
+					implementation = clz;
+					break;
+				}
+			}
+		}
+		defaultImplementation = implementation;
+		metaData = compileMetaData(type);
+	}
+
+	static GenerationPlan of(Class<?> type) {
+		return PLANS.get(type);
+	}
+
+	private static Map<Field, Data> compileMetaData(Class<?> clasz) {
+		MetaData metaData = clasz.getAnnotation(MetaData.class);
+		if (metaData == null) {
+			return Collections.emptyMap();
+		}
+		Map<Field, Data> entries = new LinkedHashMap<>();
+		for (Data data : metaData.value()) {
+			Class<?> cls = clasz;
+			if (data.fieldClass() != void.class) {
+				cls = data.fieldClass();
+			}
+			if (data.fieldName().trim().isEmpty()) {
+				throw new AnnotationProcessingException("Field 'fieldName' must be provided in MetaData annotation" + data);
+			}
+			Field field = null;
+			for (Field declared : cls.getDeclaredFields()) {
+				if (declared.getName().equals(data.fieldName())) {
+					field = declared;
+					break;
+				}
+			}
+			if (field == null) {
+				throw new RuntimeException("Field '" + data.fieldName() + "' not exists in class '" + cls.getSimpleName() + "'");
+			}
+			entries.put(field, data);
+		}
+		return Collections.unmodifiableMap(entries);
+	}
+
+	private static boolean isInnerClass(Class<?> cls) {
+		if (cls.isMemberClass() && !Modifier.isStatic(cls.getModifiers())) {
+			System.err.println("[WARNING] Only static nested classes are supported. Class " + cls.getCanonicalName() + " should be declared as static!");
+			return true;
+		}
+		return false;
+	}
+
+	Class<?> getType() {
+		return type;
+	}
+
+	boolean isAbstract() {
+		return abstractType;
+	}
+
+	/**
+	 * @return implementation used for abstract collection and map types or null if there is none
+	 */
+	Class<?> getDefaultImplementation() {
+		return defaultImplementation;
+	}
+
+	/**
+	 * @return {@link Data} entries declared by {@link MetaData} annotation of this class keyed by the target field
+	 */
+	Map<Field, Data> getMetaData() {
+		return metaData;
+	}
+
+	/**
+	 * @return fields of this class and its super classes which should be populated by the generator
+	 */
+	FieldPlan[] getFields() {
+		FieldPlan[] plans = fields;
+		if (plans == null) {
+			List<FieldPlan> list = new ArrayList<>();
+			Class<?> superCls = type;
+			do {
+				for (Field field : superCls.getDeclaredFields()) {
+					if (isInnerClass(field.getType())) {
+						System.err.println("          Field '" + field.getName() + "' was skipped by generator.");
+						continue;
+					}
+					if (field.isAnnotationPresent(XStreamOmitField.class) || Modifier.isStatic(field.getModifiers())) {
+						continue;
+					}
+					list.add(new FieldPlan(field));
+				}
+				superCls = superCls.getSuperclass();
+			} while (superCls != null);
+			plans = list.toArray(new FieldPlan[0]);
+			fields = plans;
+		}
+		return plans;
+	}
+
+	/**
+	 * @return accessors of all fields of this class and its super classes which are persisted by XStream:
+	 * fields which are not static, not transient and not annotated with {@link XStreamOmitField}
+	 */
+	FieldAccessor[] getPersistentFields() {
+		FieldAccessor[] result = persistentFields;
+		if (result == null) {
+			List<FieldAccessor> list = new ArrayList<>();
+			Class<?> superCls = type;
+			do {
+				for (Field field : superCls.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isAnnotationPresent(XStreamOmitField.class)) {
+						continue;
+					}
+					list.add(Accessors.forField(field));
+				}
+				superCls = superCls.getSuperclass();
+			} while (superCls != null);
+			result = list.toArray(new FieldAccessor[0]);
+			persistentFields = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @return first {@link DataAliases} field declared on each level of the class hierarchy
+	 */
+	FieldAccessor[] getAliasesFields() {
+		FieldAccessor[] result = aliasesFields;
+		if (result == null) {
+			List<FieldAccessor> list = new ArrayList<>();
+			Class<?> clz = type;
+			do {
+				for (Field field : clz.getDeclaredFields()) {
+					if (field.getType().equals(DataAliases.class)) {
+						list.add(Accessors.forField(field));
+						break;
+					}
+				}
+				clz = clz.getSuperclass();
+			} while (clz != null);
+			result = list.toArray(new FieldAccessor[0]);
+			aliasesFields = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Compiled view of a single field: its annotation data, resolved generic type arguments, bound accessor and
+	 * stable hash of the field name used to derive keys of counter-based random sources.
+	 */
+	static final class FieldPlan {
+		final Field field;
+		final Class<?> type;
+		final FieldData data;
+		final FieldAccessor accessor;
+		final long pathHash;
+		private final Class<?>[] typeArguments;
+
+		private FieldPlan(Field field) {
+			this.field = field;
+			this.type = field.getType();
+			this.accessor = Accessors.forField(field);
+			this.pathHash = hash(field.getDeclaringClass().getName() + "." + field.getName());
+			Data annotation = field.getAnnotation(Data.class);
+			this.data = (annotation != null) ? new FieldData(annotation) : null;
+			this.typeArguments = new Class<?>[] {typeArgument(0), typeArgument(1)};
+		}
+
+		/**
+		 * 64 bit FNV-1a hash which is stable across JVM runs
+		 */
+		private static long hash(String value) {
+			long hash = 0xcbf29ce484222325L;
+			for (int i = 0; i < value.length(); i++) {
+				hash ^= value.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+			return hash;
+		}
+
+		private Class<?> typeArgument(int argumentNum) {
+			Type genericType = field.getGenericType();
+			if (genericType instanceof ParameterizedType) {
+				Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+				if (argumentNum >= arguments.length) {
+					return String.class;
+				}
+				Type realType = arguments[argumentNum];
+				if (!(realType instanceof WildcardType)) {
+					if (realType instanceof Class) {
+						return (Class<?>) realType;
+					}
+					if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+						System.err.println("[WARNING] Collection of collection is not supported in field " + field);
+					}
+					return null;
+				}
+			}
+			return String.class;
+		}
+
+		/**
+		 * @param argumentNum index of generic type argument
+		 * @return resolved type argument, String for raw and wildcard types or null if argument is not supported
+		 */
+		Class<?> getTypeArgument(int argumentNum) {
+			return typeArguments[argumentNum];
+		}
+	}
+
+}
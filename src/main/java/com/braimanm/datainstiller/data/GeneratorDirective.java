@@ -0,0 +1,80 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.braimanm.datainstiller.data;
+
+import com.braimanm.datainstiller.generators.BoundedCache;
+import com.braimanm.datainstiller.generators.GeneratorInterface;
+import com.braimanm.datainstiller.generators.GeneratorRegistry;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Compiled data generation directive $[GENERATOR('pattern','value')] of alias value. Directives are parsed once
+ * and cached by their text, the generator is looked up in {@link GeneratorRegistry} when the directive is evaluated.
+ */
+final class GeneratorDirective {
+	private static final Pattern DIRECTIVE = Pattern.compile("\\$\\[.+]");
+	private static final Pattern GENERATOR_CALL = Pattern.compile("\\$\\[(.+)\\(\\s*'\\s*(.*)\\s*'\\s*,\\s*'\\s*(.*)\\s*'\\s*\\)");
+	private static final BoundedCache<String, GeneratorDirective> DIRECTIVES = new BoundedCache<>();
+
+	private final String generatorType;
+	private final String pattern;
+	private final String value;
+
+	private GeneratorDirective(String generatorType, String pattern, String value) {
+		this.generatorType = generatorType;
+		this.pattern = pattern;
+		this.value = value;
+	}
+
+	/**
+	 * @param text alias value
+	 * @return compiled directive or null if the text isn't data generation directive
+	 * @throws PatternUnmarshalException if the text looks like directive but can't be parsed
+	 */
+	static GeneratorDirective compile(String text) {
+		if (!text.startsWith("$[")) {
+			return null;
+		}
+		GeneratorDirective directive = DIRECTIVES.get(text);
+		if (directive == null) {
+			if (!DIRECTIVE.matcher(text).matches()) {
+				return null;
+			}
+			Matcher matcher = GENERATOR_CALL.matcher(text);
+			if (!matcher.find()) {
+				throw new PatternUnmarshalException(text + " - invalid data generation expression!");
+			}
+			directive = DIRECTIVES.put(text, new GeneratorDirective(matcher.group(1).trim(), matcher.group(2), matcher.group(3)));
+		}
+		return directive;
+	}
+
+	/**
+	 * @param registry registry to look the generator up
+	 * @return generated value
+	 */
+	String evaluate(GeneratorRegistry registry) {
+		GeneratorInterface generator = registry.get(generatorType);
+		if (generator == null) {
+			throw new GeneratorNotFoundException("Generator " + generatorType + " was not found!");
+		}
+		return generator.generate(pattern, value);
+	}
+}
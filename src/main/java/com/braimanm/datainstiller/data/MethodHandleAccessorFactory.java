@@ -0,0 +1,160 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Default {@link AccessorFactory}. Every field and class is bound once to a {@link MethodHandle} adapted to a
+ * generic signature, so accessors are invoked with {@code invokeExact} and can be inlined by the JIT.
+ * Constructor-less instantiation uses {@code sun.misc.Unsafe.allocateInstance} when it is available and falls back
+ * to {@link ReflectionAccessorFactory} otherwise.
+ */
+public class MethodHandleAccessorFactory implements AccessorFactory {
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType INSTANTIATOR_TYPE = MethodType.methodType(Object.class);
+	private static final MethodHandle ALLOCATE_INSTANCE = findAllocateInstance();
+
+	private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+	private final ReflectionAccessorFactory fallback = new ReflectionAccessorFactory();
+
+	private static MethodHandle findAllocateInstance() {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			MethodHandle allocateInstance = MethodHandles.lookup().findVirtual(unsafeClass, "allocateInstance",
+					MethodType.methodType(Object.class, Class.class));
+			return allocateInstance.bindTo(theUnsafe.get(null));
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public FieldAccessor createFieldAccessor(Field field) {
+		field.setAccessible(true);
+		boolean isStatic = Modifier.isStatic(field.getModifiers());
+		MethodHandle getter;
+		MethodHandle setter = null;
+		try {
+			getter = lookup.unreflectGetter(field);
+			if (isStatic) {
+				getter = MethodHandles.dropArguments(getter, 0, Object.class);
+			}
+			getter = getter.asType(GETTER_TYPE);
+		} catch (IllegalAccessException e) {
+			return fallback.createFieldAccessor(field);
+		}
+		try {
+			setter = lookup.unreflectSetter(field);
+			if (isStatic) {
+				setter = MethodHandles.dropArguments(setter, 0, Object.class);
+			}
+			setter = setter.asType(SETTER_TYPE);
+		} catch (IllegalAccessException ignore) {
+			// static final fields can't be written
+		}
+		return new HandleFieldAccessor(field, getter, setter);
+	}
+
+	@Override
+	public Instantiator createAllocator(Class<?> cls) {
+		if (ALLOCATE_INSTANCE == null) {
+			return fallback.createAllocator(cls);
+		}
+		MethodHandle handle = MethodHandles.insertArguments(ALLOCATE_INSTANCE, 0, cls).asType(INSTANTIATOR_TYPE);
+		return new HandleInstantiator(handle);
+	}
+
+	@Override
+	public Instantiator createConstructor(Class<?> cls) {
+		MethodHandle handle;
+		try {
+			Constructor<?> constructor = cls.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			handle = lookup.unreflectConstructor(constructor).asType(INSTANTIATOR_TYPE);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+		return new HandleInstantiator(handle);
+	}
+
+	private static final class HandleFieldAccessor implements FieldAccessor {
+		private final Field field;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+
+		HandleFieldAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+			this.field = field;
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		public Object get(Object target) {
+			try {
+				return (Object) getter.invokeExact(target);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		@Override
+		public void set(Object target, Object value) {
+			if (setter == null) {
+				throw new RuntimeException(new IllegalAccessException("Field " + field + " is read only"));
+			}
+			try {
+				setter.invokeExact(target, value);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	private static final class HandleInstantiator implements Instantiator {
+		private final MethodHandle handle;
+
+		HandleInstantiator(MethodHandle handle) {
+			this.handle = handle;
+		}
+
+		@Override
+		public Object newInstance() {
+			try {
+				return (Object) handle.invokeExact();
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,255 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.core.util.Primitives;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * In-memory deep copy of object graphs. Fields are copied directly through the cached {@link FieldAccessor}s,
+ * immutable leaves (strings, boxed primitives, enums, java.time values etc.) are shared, cycles and shared references
+ * are preserved. Arrays, collections and maps are copied element by element. JDK types which can't be copied
+ * structurally are copied with XStream XML round-trip. Only the fields persisted by XStream are copied, so
+ * the copy is equivalent to serializing the object to XML and reading it back.
+ */
+public class ObjectCloner {
+	private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.<Class<?>>asList(
+			String.class, BigDecimal.class, BigInteger.class, Class.class, UUID.class, Locale.class, Currency.class,
+			URI.class, URL.class, File.class, Pattern.class));
+
+	private static final ClassValue<CopyKind> COPY_KINDS = new ClassValue<CopyKind>() {
+		@Override
+		protected CopyKind computeValue(Class<?> type) {
+			return CopyKind.of(type);
+		}
+	};
+
+	private final Supplier<XStream> xstreamSupplier;
+	private XStream xstream;
+
+	/**
+	 * @param xstream XStream instance used for types which can't be copied structurally
+	 */
+	public ObjectCloner(XStream xstream) {
+		this(() -> xstream);
+	}
+
+	/**
+	 * @param xstreamSupplier supplies XStream instance for types which can't be copied structurally, called at most once
+	 */
+	public ObjectCloner(Supplier<XStream> xstreamSupplier) {
+		this.xstreamSupplier = xstreamSupplier;
+	}
+
+	private XStream getXstream() {
+		if (xstream == null) {
+			xstream = xstreamSupplier.get();
+		}
+		return xstream;
+	}
+
+	/**
+	 * @param source object to copy
+	 * @return deep copy of the given object
+	 */
+	public Object deepCopy(Object source) {
+		return copy(source, new IdentityHashMap<>());
+	}
+
+	/**
+	 * Copies persisted fields of the source object into the target object. Fields which are null in the
+	 * source object are left untouched in the target object.
+	 * @param source object to copy from
+	 * @param target object to copy to, should be instance of the source class
+	 */
+	public void deepCopy(Object source, Object target) {
+		if (!source.getClass().isInstance(target) || COPY_KINDS.get(source.getClass()) != CopyKind.FIELDS) {
+			XStream xstream = getXstream();
+			xstream.fromXML(xstream.toXML(source), target);
+			return;
+		}
+		Map<Object, Object> copies = new IdentityHashMap<>();
+		copies.put(source, target);
+		copyFields(source, target, copies);
+	}
+
+	private void copyFields(Object source, Object target, Map<Object, Object> copies) {
+		for (FieldAccessor accessor : GenerationPlan.of(source.getClass()).getPersistentFields()) {
+			Object value = accessor.get(source);
+			if (value != null) {
+				accessor.set(target, copy(value, copies));
+			}
+		}
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object copy(Object source, Map<Object, Object> copies) {
+		if (source == null) {
+			return null;
+		}
+		Class<?> cls = source.getClass();
+		CopyKind kind = COPY_KINDS.get(cls);
+		if (kind == CopyKind.IMMUTABLE) {
+			return source;
+		}
+		Object copy = copies.get(source);
+		if (copy != null) {
+			return copy;
+		}
+		switch (kind) {
+			case PRIMITIVE_ARRAY: {
+				int length = Array.getLength(source);
+				copy = Array.newInstance(cls.getComponentType(), length);
+				System.arraycopy(source, 0, copy, 0, length);
+				copies.put(source, copy);
+				return copy;
+			}
+			case OBJECT_ARRAY: {
+				Object[] array = (Object[]) source;
+				Object[] arrayCopy = (Object[]) Array.newInstance(cls.getComponentType(), array.length);
+				copies.put(source, arrayCopy);
+				for (int i = 0; i < array.length; i++) {
+					arrayCopy[i] = copy(array[i], copies);
+				}
+				return arrayCopy;
+			}
+			case ENUM_SET:
+				copy = EnumSet.copyOf((EnumSet) source);
+				copies.put(source, copy);
+				return copy;
+			case ENUM_MAP: {
+				EnumMap map = new EnumMap((EnumMap) source);
+				copies.put(source, map);
+				for (Object entry : map.entrySet()) {
+					Map.Entry mapEntry = (Map.Entry) entry;
+					mapEntry.setValue(copy(mapEntry.getValue(), copies));
+				}
+				return map;
+			}
+			case COLLECTION: {
+				Collection collection;
+				if (source instanceof TreeSet) {
+					collection = new TreeSet(((TreeSet) source).comparator());
+				} else {
+					collection = (Collection) Accessors.constructor(cls).newInstance();
+				}
+				copies.put(source, collection);
+				for (Object element : (Collection) source) {
+					collection.add(copy(element, copies));
+				}
+				return collection;
+			}
+			case MAP: {
+				Map map;
+				if (source instanceof TreeMap) {
+					map = new TreeMap(((TreeMap) source).comparator());
+				} else {
+					map = (Map) Accessors.constructor(cls).newInstance();
+				}
+				copies.put(source, map);
+				for (Object entry : ((Map) source).entrySet()) {
+					Map.Entry mapEntry = (Map.Entry) entry;
+					map.put(copy(mapEntry.getKey(), copies), copy(mapEntry.getValue(), copies));
+				}
+				return map;
+			}
+			case DATE:
+				copy = ((Date) source).clone();
+				copies.put(source, copy);
+				return copy;
+			case CALENDAR:
+				copy = ((Calendar) source).clone();
+				copies.put(source, copy);
+				return copy;
+			case FIELDS:
+				copy = Accessors.allocator(cls).newInstance();
+				copies.put(source, copy);
+				copyFields(source, copy, copies);
+				return copy;
+			default:
+				XStream xstream = getXstream();
+				copy = xstream.fromXML(xstream.toXML(source));
+				copies.put(source, copy);
+				return copy;
+		}
+	}
+
+	private enum CopyKind {
+		IMMUTABLE, PRIMITIVE_ARRAY, OBJECT_ARRAY, ENUM_SET, ENUM_MAP, COLLECTION, MAP, DATE, CALENDAR, FIELDS, XML;
+
+		static CopyKind of(Class<?> cls) {
+			if (IMMUTABLE_TYPES.contains(cls) || Primitives.unbox(cls) != null || Enum.class.isAssignableFrom(cls)
+					|| cls.getName().startsWith("java.time.")) {
+				return IMMUTABLE;
+			}
+			if (cls.isArray()) {
+				return cls.getComponentType().isPrimitive() ? PRIMITIVE_ARRAY : OBJECT_ARRAY;
+			}
+			if (EnumSet.class.isAssignableFrom(cls)) {
+				return ENUM_SET;
+			}
+			if (EnumMap.class.equals(cls)) {
+				return ENUM_MAP;
+			}
+			if (Date.class.isAssignableFrom(cls)) {
+				return DATE;
+			}
+			if (Calendar.class.isAssignableFrom(cls)) {
+				return CALENDAR;
+			}
+			boolean collection = Collection.class.isAssignableFrom(cls);
+			boolean map = Map.class.isAssignableFrom(cls);
+			if (collection || map) {
+				if (TreeSet.class.equals(cls) || TreeMap.class.equals(cls) || hasConstructor(cls)) {
+					return collection ? COLLECTION : MAP;
+				}
+				return XML;
+			}
+			if (isJdkType(cls)) {
+				return XML;
+			}
+			return FIELDS;
+		}
+
+		private static boolean hasConstructor(Class<?> cls) {
+			try {
+				Accessors.constructor(cls);
+				return true;
+			} catch (RuntimeException e) {
+				return false;
+			}
+		}
+
+		private static boolean isJdkType(Class<?> cls) {
+			String name = cls.getName();
+			return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.") || name.startsWith("com.sun.")
+					|| name.startsWith("jdk.");
+		}
+	}
+}
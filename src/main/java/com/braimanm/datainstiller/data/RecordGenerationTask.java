@@ -0,0 +1,65 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Generates records with index in range [from, to) into the shared result array for
+ * {@link DataGenerator#generateParallel(Class, int, java.util.concurrent.Executor)}.
+ * Ranges larger than the batch size are split in halves, each batch is generated by its own {@link DataGenerator} fork.
+ */
+class RecordGenerationTask extends RecursiveAction implements Runnable {
+	private static final long serialVersionUID = 1L;
+
+	private final transient DataGenerator template;
+	private final Class<?> cls;
+	private final Object[] records;
+	private final int from;
+	private final int to;
+	private final int batchSize;
+
+	RecordGenerationTask(DataGenerator template, Class<?> cls, Object[] records, int from, int to, int batchSize) {
+		this.template = template;
+		this.cls = cls;
+		this.records = records;
+		this.from = from;
+		this.to = to;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > batchSize) {
+			int middle = (from + to) >>> 1;
+			invokeAll(new RecordGenerationTask(template, cls, records, from, middle, batchSize),
+					new RecordGenerationTask(template, cls, records, middle, to, batchSize));
+			return;
+		}
+		DataGenerator generator = template.fork();
+		for (int i = from; i < to; i++) {
+			records[i] = generator.generateRecord(cls, i);
+		}
+	}
+
+	@Override
+	public void run() {
+		compute();
+	}
+}
@@ -0,0 +1,87 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Splittable source of generated records for {@link DataGenerator#stream(Class, long)}.
+ * Records with index in range [index, fence) are generated lazily one by one. Every split gets its own
+ * {@link DataGenerator} fork, so parallel streams never share mutable generation state.
+ */
+class RecordSpliterator<T> implements Spliterator<T> {
+	private final DataGenerator generator;
+	private final Class<T> cls;
+	private final boolean bounded;
+	private long index;
+	private final long fence;
+
+	RecordSpliterator(DataGenerator generator, Class<T> cls, long index, long fence, boolean bounded) {
+		this.generator = generator;
+		this.cls = cls;
+		this.index = index;
+		this.fence = fence;
+		this.bounded = bounded;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (index >= fence) {
+			return false;
+		}
+		T record = generator.generateRecord(cls, index);
+		index++;
+		action.accept(record);
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		while (index < fence) {
+			T record = generator.generateRecord(cls, index);
+			index++;
+			action.accept(record);
+		}
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		long middle = index + ((fence - index) >>> 1);
+		if (middle <= index) {
+			return null;
+		}
+		Spliterator<T> prefix = new RecordSpliterator<>(generator.fork(), cls, index, middle, bounded);
+		index = middle;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return bounded ? fence - index : Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		if (bounded) {
+			return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+		}
+		return IMMUTABLE;
+	}
+}
@@ -0,0 +1,81 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.data;
+
+import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+import com.thoughtworks.xstream.core.JVM;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * {@link AccessorFactory} based on plain {@link Field} and {@link Constructor} reflection calls
+ * and XStream's {@link ReflectionProvider} for constructor-less instantiation.
+ */
+public class ReflectionAccessorFactory implements AccessorFactory {
+	private final ReflectionProvider reflectionProvider = JVM.newReflectionProvider();
+
+	@Override
+	public FieldAccessor createFieldAccessor(Field field) {
+		field.setAccessible(true);
+		return new FieldAccessor() {
+			@Override
+			public Object get(Object target) {
+				try {
+					return field.get(target);
+				} catch (IllegalAccessException e) {
+					throw new RuntimeException(e);
+				}
+			}
+
+			@Override
+			public void set(Object target, Object value) {
+				try {
+					field.set(target, value);
+				} catch (IllegalAccessException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+	}
+
+	@Override
+	public Instantiator createAllocator(Class<?> cls) {
+		return () -> reflectionProvider.newInstance(cls);
+	}
+
+	@Override
+	public Instantiator createConstructor(Class<?> cls) {
+		Constructor<?> constructor;
+		try {
+			constructor = cls.getDeclaredConstructor();
+			constructor.setAccessible(true);
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException(e);
+		}
+		return () -> {
+			try {
+				return constructor.newInstance();
+			} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+				throw new RuntimeException(e);
+			}
+		};
+	}
+}
@@ -19,13 +19,18 @@ package com.braimanm.datainstiller.generators;
 import java.util.List;
 
 public class AddressGenerator extends File2ListReader implements GeneratorInterface{
-	List<String> streets = null;
-	List<String> cities = null;
+	private static final String ADDRESS_KEYS = "C#STPKO";
+	volatile List<String> streets = null;
+	volatile RowDictionary cities = null;
 
 	private void init() {
-		if (streets == null && cities == null) {
-			streets = populate("/streets");
-			cities = populate("/canada_cities");
+		if (cities == null) {
+			synchronized (this) {
+				if (cities == null) {
+					streets = getDictionary("/streets");
+					cities = RowDictionary.load("/canada_cities");
+				}
+			}
 		}
 	}
 
@@ -34,27 +39,44 @@ public class AddressGenerator extends File2ListReader implements GeneratorInterf
 	}
 
 	public Address generateAddress(boolean generatePostalCodes) {
+		Address address = generateAddress(true, true, true);
+		if (generatePostalCodes) {
+			address.postalCode = new AlphaNumericGenerator().generate("(A)[a](B) [b](C)[c]");
+		}
+		return address;
+	}
+
+	/**
+	 * Generates only the requested address components, the rest is left null.
+	 */
+	private Address generateAddress(boolean streetNumber, boolean streetName, boolean city) {
 		init();
 		Address address = new Address();
 		address.country = "CANADA";
-		int m = (int) Math.pow(10, (int) (Math.random() * 5 + 1));
-		address.streetNumber = (String.valueOf((int) (Math.random() * m) + 1));
-		address.streetName = streets.get((int) (Math.random() * streets.size()));
-		String[] city = cities.get((int) (Math.random() * cities.size())).split("\\t");
-		address.city = city[0];
-		address.provinceName = city[1];
-		address.provinceCode = city[2];
-		address.postalCode = city[3];
-		if (generatePostalCodes) {
-			address.postalCode = new AlphaNumericGenerator().generate("(A)[a](B) [b](C)[c]");
+		RandomSource random = RandomSources.current();
+		if (streetNumber) {
+			int m = (int) Math.pow(10, random.nextInt(5) + 1);
+			address.streetNumber = (String.valueOf(random.nextInt(m) + 1));
+		}
+		if (streetName) {
+			address.streetName = streets.get(random.nextInt(streets.size()));
+		}
+		if (city) {
+			int row = cities.randomRow(random);
+			address.city = cities.get(row, 0);
+			address.provinceName = cities.get(row, 1);
+			address.provinceCode = cities.get(row, 2);
+			address.postalCode = cities.get(row, 3);
 		}
 		return address;
 	}
 
 	@Override
 	public String generate(String pattern, String value) {
-		Address address = generateAddress();
-		return address.toString(pattern);
+		PlaceholderTemplate template = PlaceholderTemplate.compile(pattern, ADDRESS_KEYS);
+		Address address = generateAddress(template.references(1), template.references(2),
+				template.references(3) || template.references(4) || template.references(5) || template.references(6));
+		return address.toString(template);
 	}
 
 	public static class Address{
@@ -88,15 +110,11 @@ public class AddressGenerator extends File2ListReader implements GeneratorInterf
 		 * {O} - postal code
 		 */
 		public String toString(String pattern){
-			String out=pattern;
-			out=out.replace("{C}", country);
-			out=out.replace("{#}", streetNumber);
-			out=out.replace("{S}", streetName);
-			out=out.replace("{T}", city);
-			out=out.replace("{P}", provinceName);
-			out=out.replace("{K}", provinceCode);
-			out=out.replace("{O}", postalCode);
-			return out;
+			return toString(PlaceholderTemplate.compile(pattern, ADDRESS_KEYS));
+		}
+
+		private String toString(PlaceholderTemplate template) {
+			return template.render(country, streetNumber, streetName, city, provinceName, provinceCode, postalCode);
 		}
 	}
 	
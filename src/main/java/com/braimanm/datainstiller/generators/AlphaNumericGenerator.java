@@ -16,21 +16,19 @@ Copyright 2010-2021 Michael Braiman braimanm@gmail.com
 
 package com.braimanm.datainstiller.generators;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 public class AlphaNumericGenerator implements GeneratorInterface{
-	
-	private String getLetter(boolean capital){
-		int offset = 97;
-		if (capital) offset = 65;
-		int i = (int) (Math.random() * 26);
-		return String.valueOf((char) (offset + i));
+	private static final BoundedCache<String, Program> PROGRAMS = new BoundedCache<>();
+
+	private static char getLetter(RandomSource random, boolean capital){
+		return (char) ((capital ? 'A' : 'a') + random.nextInt(26));
 	}
 	
-	private String getDigit(){
-		int d = (int) (Math.random() * 10);
-		return String.valueOf(d);
+	private static char getDigit(RandomSource random){
+		return (char) ('0' + random.nextInt(10));
 	}
 	
 	/* Pattern:
@@ -45,42 +43,116 @@ public class AlphaNumericGenerator implements GeneratorInterface{
 	 */
 	
 	public String generate(String pattern){
-		String out = pattern;
-		Pattern patt = Pattern.compile("[|\\[({][a-zA-Z][|\\])}]");
-		Matcher matcher = patt.matcher(pattern);
+		Program program = PROGRAMS.get(pattern, Program::new);
+		return program.execute(RandomSources.current());
+	}
 
-		while (matcher.find()){
-			char bracket = matcher.group().charAt(0);
-			char c = matcher.group().charAt(1);
-			boolean upperCase;
-			String value = null;
-			upperCase = (c >= 65 && c <= 90);
-			if (bracket == 40) {
-				value = getLetter(upperCase);
-			} else if (bracket == 91) {
-				value = getDigit();
-			} else if (bracket == 124) {
-				int rnd = (int) (Math.random() * 2);
-				if (rnd == 0) {
-					value=getLetter(upperCase);
-				} else if (rnd == 1) {
-					value = getDigit();
-				}
-			} else if (bracket == 123) {
-				int rnd = (int) (Math.random() * 3);
-				if (rnd == 0) {
-					value = getLetter(true);
-				} else if (rnd == 1) {
-					value = getDigit();
+	/**
+	 * Pattern compiled to the output template with literal characters and slots for generated symbols.
+	 * Repeated symbols refer to the slot of their first occurrence and get the same value.
+	 */
+	private static final class Program {
+		private static final byte LETTER = 0;
+		private static final byte DIGIT = 1;
+		private static final byte LETTER_OR_DIGIT = 2;
+		private static final byte ANY = 3;
+
+		private final char[] template;
+		private final int[] positions;
+		private final byte[] kinds;
+		private final boolean[] upperCase;
+		// index of the slot with the same symbol or -1 for the first occurrence
+		private final int[] sameAs;
+
+		Program(String pattern) {
+			int length = pattern.length();
+			char[] out = new char[length];
+			int[] slotPositions = new int[length / 3];
+			byte[] slotKinds = new byte[length / 3];
+			boolean[] slotUpperCase = new boolean[length / 3];
+			int[] slotSameAs = new int[length / 3];
+			Map<String, Integer> symbols = new HashMap<>();
+			int size = 0;
+			int slots = 0;
+			int i = 0;
+			while (i < length) {
+				char bracket = pattern.charAt(i);
+				if (i + 2 < length && "|[({".indexOf(bracket) >= 0 && isLetter(pattern.charAt(i + 1))
+						&& "|])}".indexOf(pattern.charAt(i + 2)) >= 0) {
+					String symbol = pattern.substring(i, i + 3);
+					Integer first = symbols.get(symbol);
+					if (first == null) {
+						symbols.put(symbol, slots);
+					}
+					char c = pattern.charAt(i + 1);
+					slotPositions[slots] = size;
+					slotKinds[slots] = kindOf(bracket);
+					slotUpperCase[slots] = c >= 'A' && c <= 'Z';
+					slotSameAs[slots] = (first == null) ? -1 : first;
+					slots++;
+					out[size++] = c;
+					i += 3;
 				} else {
-					value = getLetter(false);
+					out[size++] = bracket;
+					i++;
+				}
+			}
+			template = Arrays.copyOf(out, size);
+			positions = Arrays.copyOf(slotPositions, slots);
+			kinds = Arrays.copyOf(slotKinds, slots);
+			upperCase = Arrays.copyOf(slotUpperCase, slots);
+			sameAs = Arrays.copyOf(slotSameAs, slots);
+		}
+
+		private static boolean isLetter(char c) {
+			return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+		}
+
+		private static byte kindOf(char bracket) {
+			switch (bracket) {
+				case '(':
+					return LETTER;
+				case '[':
+					return DIGIT;
+				case '|':
+					return LETTER_OR_DIGIT;
+				default:
+					return ANY;
+			}
+		}
+
+		String execute(RandomSource random) {
+			char[] out = template.clone();
+			for (int slot = 0; slot < positions.length; slot++) {
+				if (sameAs[slot] >= 0) {
+					out[positions[slot]] = out[positions[sameAs[slot]]];
+					continue;
+				}
+				char value;
+				switch (kinds[slot]) {
+					case LETTER:
+						value = getLetter(random, upperCase[slot]);
+						break;
+					case DIGIT:
+						value = getDigit(random);
+						break;
+					case LETTER_OR_DIGIT:
+						value = (random.nextInt(2) == 0) ? getLetter(random, upperCase[slot]) : getDigit(random);
+						break;
+					default:
+						int rnd = random.nextInt(3);
+						if (rnd == 0) {
+							value = getLetter(random, true);
+						} else if (rnd == 1) {
+							value = getDigit(random);
+						} else {
+							value = getLetter(random, false);
+						}
 				}
+				out[positions[slot]] = value;
 			}
-			assert value != null;
-			out = out.replace(matcher.group(), value);
+			return new String(out);
 		}
-		return out;
-		
 	}
 
 	@Override
@@ -0,0 +1,58 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * {@link RandomSource} which fills a primitive buffer of random longs from the delegate source in one go
+ * and hands values out of the buffer. Intended to be confined to a single thread, so no synchronization is done.
+ */
+public class BatchedRandomSource implements RandomSource {
+	private final RandomSource delegate;
+	private final long[] buffer;
+	private int position;
+
+	/**
+	 * @param delegate source used to refill the buffer
+	 * @param batchSize number of values generated on every refill
+	 */
+	public BatchedRandomSource(RandomSource delegate, int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+		}
+		this.delegate = delegate;
+		this.buffer = new long[batchSize];
+		this.position = batchSize;
+	}
+
+	@Override
+	public long nextLong() {
+		if (position == buffer.length) {
+			for (int i = 0; i < buffer.length; i++) {
+				buffer[i] = delegate.nextLong();
+			}
+			position = 0;
+		}
+		return buffer[position++];
+	}
+
+	@Override
+	public RandomSource split() {
+		return new BatchedRandomSource(delegate.split(), buffer.length);
+	}
+}
@@ -0,0 +1,143 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Small thread-safe cache of parsed patterns and compiled templates. Lookups are lock-free, the number of entries is
+ * bounded and entries are evicted with the clock (second chance) policy: every hit marks the entry and the clock hand
+ * evicts the first entry which wasn't used since the hand passed it last time. Values are created outside of any lock,
+ * concurrent misses of the same key might create the value more than once but all callers get the cached instance.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class BoundedCache<K, V> {
+	public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+	private final Map<K, Node<V>> entries = new ConcurrentHashMap<>();
+	private final int maxEntries;
+	private final LongAdder evictions = new LongAdder();
+	private Iterator<Map.Entry<K, Node<V>>> hand;
+
+	public BoundedCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param maxEntries maximum number of cached entries
+	 */
+	public BoundedCache(int maxEntries) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("Max entries should be positive: " + maxEntries);
+		}
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * @param key cache key
+	 * @return cached value or null
+	 */
+	public V get(K key) {
+		Node<V> node = entries.get(key);
+		if (node == null) {
+			return null;
+		}
+		node.referenced = true;
+		return node.value;
+	}
+
+	/**
+	 * @param key cache key
+	 * @param factory creates the value of missing key, might throw to report invalid keys
+	 * @return cached value
+	 */
+	public V get(K key, Function<? super K, ? extends V> factory) {
+		V value = get(key);
+		return (value != null) ? value : put(key, factory.apply(key));
+	}
+
+	/**
+	 * @param key cache key
+	 * @param value value to cache
+	 * @return the given value or the value which was cached for the key concurrently
+	 */
+	public V put(K key, V value) {
+		Node<V> existing = entries.putIfAbsent(key, new Node<>(value));
+		if (existing != null) {
+			existing.referenced = true;
+			return existing.value;
+		}
+		if (entries.size() > maxEntries) {
+			evict();
+		}
+		return value;
+	}
+
+	private synchronized void evict() {
+		while (entries.size() > maxEntries) {
+			if (hand == null || !hand.hasNext()) {
+				hand = entries.entrySet().iterator();
+				if (!hand.hasNext()) {
+					return;
+				}
+			}
+			Map.Entry<K, Node<V>> entry = hand.next();
+			Node<V> node = entry.getValue();
+			if (node.referenced) {
+				node.referenced = false;
+			} else if (entries.remove(entry.getKey(), node)) {
+				evictions.increment();
+			}
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * @return number of entries evicted because of the size bound
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	private static final class Node<V> {
+		final V value;
+		volatile boolean referenced;
+
+		Node(V value) {
+			this.value = value;
+		}
+	}
+}
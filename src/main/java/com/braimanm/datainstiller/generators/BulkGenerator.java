@@ -0,0 +1,41 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Generator which fills whole primitive arrays at once, writing straight into the array without boxing.
+ * {@link com.braimanm.datainstiller.data.DataGenerator} uses it for primitive array fields whenever
+ * {@link #supports(Class, String)} returns true.
+ */
+public interface BulkGenerator extends GeneratorInterface {
+
+	/**
+	 * @param componentType primitive component type of the array
+	 * @param pattern generator pattern
+	 * @return true if arrays with the given component type can be filled for the given pattern
+	 */
+	boolean supports(Class<?> componentType, String pattern);
+
+	/**
+	 * @param array primitive array to fill, component type is supported by {@link #supports(Class, String)}
+	 * @param pattern generator pattern
+	 * @param value generator value
+	 */
+	void fill(Object array, String pattern, String value);
+}
@@ -0,0 +1,67 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Counter-based {@link RandomSource}: value number n of a key is a stateless hash of (key, n), in the style of
+ * SplitMix. Sources with the same key always produce the same sequence regardless of what was generated before,
+ * which allows to regenerate any part of a data set directly from its key. Keys are derived from a master seed
+ * and coordinates (record index, field path) with {@link #combine(long, long)}. Not thread-safe.
+ */
+public class CounterRandomSource implements RandomSource {
+	private long key;
+	private long counter;
+
+	public CounterRandomSource(long key) {
+		this.key = key;
+	}
+
+	/**
+	 * Derives key for a child coordinate, for example record index from master seed or field from record key.
+	 * @param key parent key
+	 * @param value coordinate of the child
+	 * @return child key
+	 */
+	public static long combine(long key, long value) {
+		return SplitMix64RandomSource.mix64(key ^ SplitMix64RandomSource.mix64(value + SplitMix64RandomSource.GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Restarts the sequence for the given key
+	 * @param key new key
+	 */
+	public void reset(long key) {
+		this.key = key;
+		this.counter = 0;
+	}
+
+	public long getKey() {
+		return key;
+	}
+
+	@Override
+	public long nextLong() {
+		return SplitMix64RandomSource.mix64(key + (++counter) * SplitMix64RandomSource.GOLDEN_GAMMA);
+	}
+
+	@Override
+	public RandomSource split() {
+		return new CounterRandomSource(combine(key, nextLong()));
+	}
+}
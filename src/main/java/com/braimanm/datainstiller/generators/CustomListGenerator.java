@@ -20,6 +20,12 @@ package com.braimanm.datainstiller.generators;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Chooses random entry of the comma separated value. With pattern "WEIGHTED" entries are weighted
+ * "GOLD:1,SILVER:5,BRONZE:20", see {@link WeightedChoice} for the syntax.
+ */
 @SuppressWarnings("unused")
 public class CustomListGenerator implements GeneratorInterface{
 	private List<String> list;
@@ -36,14 +42,17 @@ public class CustomListGenerator implements GeneratorInterface{
 	}
 	
 	public String getValue(){
-		int index = (int) (Math.random() * list.size());
+		return getValue(list);
+	}
+
+	private static String getValue(List<String> list) {
+		int index = RandomSources.current().nextInt(list.size());
 		return list.get(index);
 	}
 	
 	@Override
 	public String generate(String pattern, String value) {
-		list = Arrays.asList(value.split(","));
-		return getValue();
+		return WeightedChoice.parse(value, WeightedChoice.WEIGHTED.equals(pattern)).next();
 	}
 	
 //	@Test
@@ -19,59 +19,178 @@ package com.braimanm.datainstiller.generators;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
 import java.util.TimeZone;
 
-public class DateGenerator implements GeneratorInterface {
-	DateFormat dateFormater;
-	long dateFrom;
-	long dateTo;
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Generates random date in the range given by value "from|to|format", both bounds are inclusive days.
+ * Generated date is formatted with the pattern or with the range format if the pattern is empty, all dates are in GMT.
+ * Parsed ranges and formatters are cached and shared, the generator is thread-safe.
+ * Typed fields of {@link Date}, {@link Instant}, {@link LocalDate} and {@link LocalDateTime} types get the generated
+ * date directly without formatting.
+ */
+public class DateGenerator implements TypedGenerator {
+	private static final long DAY_MILLIS = 24 * 60 * 60 * 1000;
+	private static final BoundedCache<String, DateRange> RANGES = new BoundedCache<>();
+	private static final BoundedCache<String, Formatter> FORMATTERS = new BoundedCache<>();
+	// pattern letters which have the same meaning in SimpleDateFormat and DateTimeFormatter and their maximum count
+	private static final String COMPATIBLE_LETTERS = "yMdHhmsaEDkK";
+	private static final int[] COMPATIBLE_COUNTS = {Integer.MAX_VALUE, 4, 2, 2, 2, 2, 2, 1, 4, 3, 2, 2};
+
+	private DateRange range;
 	
 	public DateGenerator(){
 	}
 
 	public DateGenerator(String from, String to, String pattern) throws ParseException {
-		dateFormater = new SimpleDateFormat(pattern);
-		dateFormater.setTimeZone(TimeZone.getTimeZone("GMT"));
-		dateFrom = dateFormater.parse(from).getTime();
-		dateTo = dateFormater.parse(to).getTime() + 24 * 60 * 60 * 1000 + 1;
+		range = new DateRange(from, to, pattern);
 	}
 	
 	private long getRandomDate(){
-		return dateFrom + (long) (Math.random() * (dateTo - dateFrom));
+		return range.getRandomDate();
 	}
 	
 	public String getDate(){
-		return dateFormater.format(getRandomDate());
+		return range.formatter.format(getRandomDate());
 	}
 	
 	public String getDate(String format){
-		DateFormat formater = new SimpleDateFormat(format);
-		formater.setTimeZone(TimeZone.getTimeZone("GMT"));
-		return formater.format(getRandomDate());
+		return getFormatter(format).format(getRandomDate());
+	}
+
+	private static Formatter getFormatter(String pattern) {
+		return FORMATTERS.get(pattern, Formatter::new);
+	}
+
+	private static DateRange getRange(String value) {
+		DateRange range = RANGES.get(value);
+		if (range == null) {
+			String[] args = value.split("\\|");
+			try {
+				range = RANGES.put(value, new DateRange(args[0], args[1], args[2]));
+			} catch (ParseException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		return range;
 	}
 
 	@Override
 	public String generate(String pattern, String value) {
-		String[] args = value.split("\\|");
-		try {
-			DateGenerator dg = new DateGenerator(args[0], args[1], args[2]);
-			if (pattern == null || pattern.isEmpty()) {
-				return dg.getDate();
-			} else {
-				return dg.getDate(pattern);
+		DateRange range = getRange(value);
+		long date = range.getRandomDate();
+		if (pattern == null || pattern.isEmpty()) {
+			return range.formatter.format(date);
+		} else {
+			return getFormatter(pattern).format(date);
+		}
+	}
+
+	@Override
+	public boolean supports(Class<?> type, String pattern) {
+		return type == Date.class || type == Instant.class || type == LocalDate.class || type == LocalDateTime.class;
+	}
+
+	/**
+	 * Generates random date of the given type, the pattern doesn't affect typed values.
+	 */
+	@Override
+	public Object generate(Class<?> type, String pattern, String value) {
+		long date = getRange(value).getRandomDate();
+		if (type == Date.class) {
+			return new Date(date);
+		}
+		Instant instant = Instant.ofEpochMilli(date);
+		if (type == Instant.class) {
+			return instant;
+		}
+		LocalDateTime dateTime = LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+		return (type == LocalDate.class) ? dateTime.toLocalDate() : dateTime;
+	}
+
+	/**
+	 * Immutable range of epoch milliseconds [from, to) with the formatter of the range format.
+	 */
+	private static final class DateRange {
+		final long from;
+		final long to;
+		final Formatter formatter;
+
+		DateRange(String from, String to, String pattern) throws ParseException {
+			// bounds are parsed once, so SimpleDateFormat keeps the lenient parsing of the range
+			DateFormat parser = new SimpleDateFormat(pattern);
+			parser.setTimeZone(TimeZone.getTimeZone("GMT"));
+			this.from = parser.parse(from).getTime();
+			this.to = parser.parse(to).getTime() + DAY_MILLIS + 1;
+			this.formatter = getFormatter(pattern);
+		}
+
+		long getRandomDate() {
+			return from + (long) (RandomSources.current().nextDouble() * (to - from));
+		}
+	}
+
+	/**
+	 * Thread-safe GMT formatter. Patterns made of letters with the same meaning in both APIs are formatted with
+	 * {@link DateTimeFormatter}, other patterns with per thread {@link SimpleDateFormat}.
+	 */
+	private static final class Formatter {
+		final DateTimeFormatter formatter;
+		final ThreadLocal<DateFormat> legacyFormatter;
+
+		Formatter(String pattern) {
+			DateTimeFormatter compatible = null;
+			if (isCompatible(pattern)) {
+				try {
+					compatible = DateTimeFormatter.ofPattern(pattern).withZone(ZoneOffset.UTC);
+				} catch (IllegalArgumentException e) {
+					compatible = null;
+				}
 			}
-		} catch (ParseException e) {
-			throw new RuntimeException(e);
+			formatter = compatible;
+			legacyFormatter = (compatible != null) ? null : ThreadLocal.withInitial(() -> {
+				DateFormat format = new SimpleDateFormat(pattern);
+				format.setTimeZone(TimeZone.getTimeZone("GMT"));
+				return format;
+			});
+		}
+
+		private static boolean isCompatible(String pattern) {
+			boolean quoted = false;
+			for (int i = 0; i < pattern.length(); i++) {
+				char c = pattern.charAt(i);
+				if (c == '\'') {
+					quoted = !quoted;
+				} else if (!quoted && ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+					int letter = COMPATIBLE_LETTERS.indexOf(c);
+					int count = 1;
+					while (i + 1 < pattern.length() && pattern.charAt(i + 1) == c) {
+						count++;
+						i++;
+					}
+					if (letter < 0 || count > COMPATIBLE_COUNTS[letter]) {
+						return false;
+					}
+				} else if (!quoted && (c == '[' || c == ']' || c == '{' || c == '}' || c == '#')) {
+					// reserved or optional section characters of DateTimeFormatter
+					return false;
+				}
+			}
+			return true;
+		}
+
+		String format(long date) {
+			if (formatter != null) {
+				return formatter.format(Instant.ofEpochMilli(date));
+			}
+			return legacyFormatter.get().format(new Date(date));
 		}
 	}
-	
-	
-//	@Test
-//	void test() throws ParseException{
-//		DateGenerator generator=new DateGenerator("1920/01/01","2000/12/31","yyyy/MM/dd");
-//		System.out.println(generator.getDate());
-//		System.out.println(generator.getDate("dd MMM yyyy"));
-//		System.out.println(generator.getDate("MMMM dd yyyy hh:mm:ss"));
-//		System.out.println(new DateGenerator().generate("dd MMM yyyy","2010/01/01|2013/12/31|yyyy/MM/dd"));
-//	}
 }
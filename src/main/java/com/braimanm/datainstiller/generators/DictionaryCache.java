@@ -0,0 +1,252 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Process-wide thread-safe cache of dictionaries (lists of lines) keyed by resource name, and of values derived from
+ * them such as parsed tables. Every entry is loaded once: concurrent lookups of the same entry wait for a single load,
+ * lookups and loads of other entries are not blocked. The number of cached entries is bounded, the least recently
+ * used entry is evicted first. Entries are held strongly since generators keep references to the dictionaries they
+ * use anyway, the bound is what limits the memory. Cached lists are unmodifiable.
+ */
+public class DictionaryCache {
+	public static final int DEFAULT_MAX_ENTRIES = 64;
+	private static final DictionaryCache DEFAULT = new DictionaryCache(DEFAULT_MAX_ENTRIES, File2ListReader::read);
+
+	private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+	private final Function<String, List<String>> loader;
+	private final AtomicLong clock = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder loadTime = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final Object evictionLock = new Object();
+	private volatile int maxEntries;
+
+	/**
+	 * @param maxEntries maximum number of cached entries
+	 * @param loader loads dictionary by resource name
+	 */
+	public DictionaryCache(int maxEntries, Function<String, List<String>> loader) {
+		setMaxEntries(maxEntries);
+		this.loader = loader;
+	}
+
+	/**
+	 * @return cache shared by all generators, loads dictionaries from classpath resources
+	 */
+	public static DictionaryCache getDefault() {
+		return DEFAULT;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public void setMaxEntries(int maxEntries) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("Max entries should be positive: " + maxEntries);
+		}
+		this.maxEntries = maxEntries;
+		evict();
+	}
+
+	/**
+	 * @param name resource name
+	 * @return unmodifiable dictionary, loaded once and shared by all callers
+	 */
+	@SuppressWarnings("unchecked")
+	public List<String> get(String name) {
+		return (List<String>) lookup(new Key(name, null), () -> Collections.unmodifiableList(loader.apply(name)));
+	}
+
+	/**
+	 * @param name resource name
+	 * @param kind kind of the derived value, one value of each kind is cached per dictionary
+	 * @param factory builds the value from the dictionary
+	 * @param <T> type of the derived value
+	 * @return value derived from the dictionary, built once and shared by all callers
+	 */
+	public <T> T get(String name, Class<T> kind, Function<List<String>, T> factory) {
+		return kind.cast(lookup(new Key(name, kind), () -> factory.apply(get(name))));
+	}
+
+	private Object lookup(Key key, Supplier<Object> factory) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			Entry created = new Entry();
+			entry = entries.putIfAbsent(key, created);
+			if (entry == null) {
+				misses.increment();
+				load(key, created, factory);
+				evict();
+				return created.value.join();
+			}
+		}
+		hits.increment();
+		entry.lastAccess = clock.incrementAndGet();
+		try {
+			return entry.value.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+
+	private void load(Key key, Entry entry, Supplier<Object> factory) {
+		long start = System.nanoTime();
+		try {
+			entry.value.complete(factory.get());
+		} catch (RuntimeException | Error e) {
+			entries.remove(key, entry);
+			entry.value.completeExceptionally(e);
+			throw e;
+		} finally {
+			loadTime.add(System.nanoTime() - start);
+		}
+		entry.lastAccess = clock.incrementAndGet();
+	}
+
+	private void evict() {
+		synchronized (evictionLock) {
+			while (entries.size() > maxEntries) {
+				Key eldest = null;
+				long eldestAccess = Long.MAX_VALUE;
+				for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+					if (entry.getValue().lastAccess < eldestAccess) {
+						eldest = entry.getKey();
+						eldestAccess = entry.getValue().lastAccess;
+					}
+				}
+				if (eldest == null || entries.remove(eldest) == null) {
+					break;
+				}
+				evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached entries, statistics are kept.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return statistics, dictionaries and derived values are counted together
+	 */
+	public Stats getStats() {
+		return new Stats(hits.sum(), misses.sum(), loadTime.sum(), evictions.sum(), entries.size());
+	}
+
+	private static final class Key {
+		final String name;
+		final Class<?> kind;
+
+		Key(String name, Class<?> kind) {
+			this.name = name;
+			this.kind = kind;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return name.equals(key.name) && kind == key.kind;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(name, kind);
+		}
+	}
+
+	private static final class Entry {
+		final CompletableFuture<Object> value = new CompletableFuture<>();
+		volatile long lastAccess = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Snapshot of cache statistics.
+	 */
+	public static final class Stats {
+		private final long hits;
+		private final long misses;
+		private final long loadTimeNanos;
+		private final long evictions;
+		private final int size;
+
+		Stats(long hits, long misses, long loadTimeNanos, long evictions, int size) {
+			this.hits = hits;
+			this.misses = misses;
+			this.loadTimeNanos = loadTimeNanos;
+			this.evictions = evictions;
+			this.size = size;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		/**
+		 * @return number of lookups which loaded the entry
+		 */
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * @return total time spent loading entries in nanoseconds
+		 */
+		public long getLoadTimeNanos() {
+			return loadTimeNanos;
+		}
+
+		/**
+		 * @return number of entries evicted because of the size bound
+		 */
+		public long getEvictions() {
+			return evictions;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		@Override
+		public String toString() {
+			return "hits=" + hits + " misses=" + misses + " loadTimeNanos=" + loadTimeNanos + " evictions=" + evictions
+					+ " size=" + size;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Converts text dictionaries (one entry per line) to {@link PackedDictionary} binary format. The build runs it for
+ * the bundled dictionaries, user dictionaries for FILE2LIST fields can be converted the same way and placed next to
+ * the text file in the classpath, {@link File2ListReader} prefers "name.dict" over "name".
+ * <p>
+ * Usage: DictionaryCompiler [-z] [-charset name] outputDirectory file...
+ * <br>-z - compress the data (compressed dictionaries are inflated on load instead of being memory-mapped)
+ * <br>-charset - charset of the text files, {@link File2ListReader#CHARSET} is used if not specified
+ */
+public class DictionaryCompiler {
+
+	/**
+	 * @param source text dictionary
+	 * @param target binary dictionary to create
+	 * @param charset charset of the text dictionary
+	 * @param compress compress the data
+	 * @throws IOException on read or write error
+	 */
+	public static void compile(Path source, Path target, Charset charset, boolean compress) throws IOException {
+		PackedDictionary dictionary;
+		try (InputStream in = Files.newInputStream(source)) {
+			dictionary = PackedDictionary.read(in, charset);
+		}
+		if (target.getParent() != null) {
+			Files.createDirectories(target.getParent());
+		}
+		try (OutputStream out = Files.newOutputStream(target)) {
+			dictionary.write(out, compress);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		boolean compress = false;
+		Charset charset = File2ListReader.CHARSET;
+		int i = 0;
+		for (; i < args.length && args[i].startsWith("-"); i++) {
+			if (args[i].equals("-z")) {
+				compress = true;
+			} else if (args[i].equals("-charset") && i + 1 < args.length) {
+				charset = Charset.forName(args[++i]);
+			} else {
+				throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+		}
+		if (i >= args.length) {
+			throw new IllegalArgumentException("Usage: DictionaryCompiler [-z] [-charset name] outputDirectory file...");
+		}
+		Path outputDirectory = Paths.get(args[i++]);
+		for (; i < args.length; i++) {
+			Path source = Paths.get(args[i]);
+			compile(source, outputDirectory.resolve(source.getFileName() + PackedDictionary.FILE_EXTENSION), charset, compress);
+		}
+	}
+}
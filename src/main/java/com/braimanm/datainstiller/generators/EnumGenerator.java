@@ -0,0 +1,98 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.braimanm.datainstiller.generators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Chooses random constant of enum field. The value is optional weighted list of constant names
+ * "GOLD:1,SILVER:5,BRONZE:20", all constants of the enum are chosen uniformly if the value is empty.
+ * For EnumSet fields the pattern is the number of distinct constants "n" or "min,max" (default is 1),
+ * constants with higher weight are more likely to be included. Constant names can't contain ':', so weights are
+ * recognized by the syntax. For other field types the value is chosen the same way as by CUSTOM_LIST generator.
+ */
+public class EnumGenerator implements TypedGenerator {
+	private static final ClassValue<BoundedCache<String, WeightedChoice<Enum<?>>>> CHOICES = new ClassValue<BoundedCache<String, WeightedChoice<Enum<?>>>>() {
+		@Override
+		protected BoundedCache<String, WeightedChoice<Enum<?>>> computeValue(Class<?> type) {
+			return new BoundedCache<>();
+		}
+	};
+
+	@Override
+	public String generate(String pattern, String value) {
+		return WeightedChoice.parse(value, WeightedChoice.WEIGHTED.equals(pattern)).next();
+	}
+
+	@Override
+	public boolean supports(Class<?> type, String pattern) {
+		return type.isEnum();
+	}
+
+	@Override
+	public Object generate(Class<?> type, String pattern, String value) {
+		return getChoice(type, value).next();
+	}
+
+	/**
+	 * @param type enum type
+	 * @param pattern number of constants "n" or "min,max", one constant if empty
+	 * @param value optional weighted list of constant names
+	 * @return set of distinct constants
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public <E extends Enum<E>> EnumSet<E> generateSet(Class<E> type, String pattern, String value) {
+		RandomSource random = RandomSources.current();
+		int count = 1;
+		if (pattern != null && !pattern.isEmpty()) {
+			String[] range = pattern.split(",");
+			int min = Integer.parseInt(range[0].trim());
+			int max = (range.length > 1) ? Integer.parseInt(range[1].trim()) : min;
+			count = (min == max) ? min : (int) random.nextLong(min, (long) max + 1);
+		}
+		WeightedChoice<Enum<?>> choice = getChoice(type, value);
+		EnumSet<E> set = EnumSet.noneOf(type);
+		for (int index : choice.nextIndexes(random, count)) {
+			set.add((E) choice.getValues().get(index));
+		}
+		return set;
+	}
+
+	private static WeightedChoice<Enum<?>> getChoice(Class<?> type, String value) {
+		String key = (value != null) ? value : "";
+		return CHOICES.get(type).get(key, names -> parse(type, names));
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static WeightedChoice<Enum<?>> parse(Class<?> type, String value) {
+		if (value.trim().isEmpty()) {
+			return WeightedChoice.uniform(Arrays.asList((Enum<?>[]) type.getEnumConstants()));
+		}
+		WeightedChoice<String> names = WeightedChoice.parse(value, value.indexOf(':') >= 0);
+		List<Enum<?>> constants = new ArrayList<>(names.getValues().size());
+		double[] weights = new double[names.getValues().size()];
+		for (int i = 0; i < weights.length; i++) {
+			constants.add(Enum.valueOf((Class) type, names.getValues().get(i).trim()));
+			weights[i] = names.getWeight(i);
+		}
+		return WeightedChoice.of(constants, names.isWeighted() ? weights : null);
+	}
+}
@@ -18,28 +18,49 @@ package com.braimanm.datainstiller.generators;
 
 import java.util.List;
 
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Chooses random line of the dictionary given by value. With pattern "WEIGHTED" every line of the dictionary is
+ * weighted entry "name:weight" and entries are chosen according to their weights, see {@link WeightedChoice}.
+ */
 @SuppressWarnings("unused")
 public class File2ListGenerator extends File2ListReader implements GeneratorInterface{
+	public static final String WEIGHTED = WeightedChoice.WEIGHTED;
 	private List<String> list;
 	
 	public File2ListGenerator() {
 	}
 	
 	public File2ListGenerator(String fileName){
-		list = populate("/" + fileName);
+		list = getDictionary("/" + fileName);
 	}
 
 	public String getValue() {
+		return getValue(list);
+	}
+
+	private static String getValue(List<String> list) {
 		if (list.size() == 0)
 			throw new RuntimeException("The file is empty!");
-		int index = (int) (Math.random() * list.size());
+		int index = RandomSources.current().nextInt(list.size());
 		return list.get(index);
 	}
 
+	/**
+	 * Weighted tables are parsed once and kept in {@link DictionaryCache#getDefault()} next to their dictionaries.
+	 */
+	@SuppressWarnings("unchecked")
+	private static WeightedChoice<String> getWeightedChoice(String fileName) {
+		return DictionaryCache.getDefault().get(fileName, WeightedChoice.class, lines -> WeightedChoice.parse(lines, true));
+	}
+
 	@Override
 	public String generate(String pattern, String value) {
-		list = populate("/" + value);
-		return getValue();
+		if (WEIGHTED.equals(pattern)) {
+			return getWeightedChoice("/" + value).next();
+		}
+		return getValue(getDictionary("/" + value));
 	}
-	
+
 }
@@ -16,33 +16,63 @@ Copyright 2010-2021 Michael Braiman braimanm@gmail.com
 
 package com.braimanm.datainstiller.generators;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 public class File2ListReader {
+	/**
+	 * Charset of text dictionaries, the same charset is used by {@link DictionaryCompiler} when the bundled
+	 * dictionaries are compiled, so text and compiled dictionaries give the same lines.
+	 */
+	public static final Charset CHARSET = StandardCharsets.ISO_8859_1;
 
+	/**
+	 * @param fileName classpath resource name, resolved relative to the class of this reader
+	 * @return new mutable list of resource lines
+	 */
 	public List<String> populate(String fileName) {
-		List<String> listToPopulate = new ArrayList<>();
-		InputStream inStream = this.getClass().getResourceAsStream(fileName);
-		if (inStream == null)
-			throw new RuntimeException("Resource file: " + fileName + " was not found!");
-		BufferedReader reader = new BufferedReader(new InputStreamReader(inStream), 100000);
-		String line;
-		try {
-			while ((line = reader.readLine()) != null) listToPopulate.add(line);
-		} catch (IOException e) {
-			e.printStackTrace();
-		} finally {
+		return new ArrayList<>(read(getClass(), fileName));
+	}
+
+	/**
+	 * @param fileName classpath resource name
+	 * @return unmodifiable list of resource lines, shared through {@link DictionaryCache#getDefault()}
+	 */
+	protected static List<String> getDictionary(String fileName) {
+		return DictionaryCache.getDefault().get(fileName);
+	}
+
+	/**
+	 * Reads classpath resource without caching. Precompiled binary dictionary "fileName.dict" is loaded
+	 * if present, see {@link DictionaryCompiler}.
+	 * @param fileName classpath resource name
+	 * @return {@link PackedDictionary} with resource lines, text resource is decoded with {@link #CHARSET}
+	 */
+	public static List<String> read(String fileName) {
+		return read(File2ListReader.class, fileName);
+	}
+
+	private static List<String> read(Class<?> context, String fileName) {
+		URL compiled = context.getResource(fileName + PackedDictionary.FILE_EXTENSION);
+		if (compiled != null) {
 			try {
-				reader.close();
+				return PackedDictionary.load(compiled);
 			} catch (IOException e) {
-				e.printStackTrace();
+				throw new RuntimeException(e);
 			}
 		}
-		return listToPopulate;
+		InputStream inStream = context.getResourceAsStream(fileName);
+		if (inStream == null)
+			throw new RuntimeException("Resource file: " + fileName + " was not found!");
+		try (InputStream in = inStream) {
+			return PackedDictionary.read(in, CHARSET);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
 	}
 }
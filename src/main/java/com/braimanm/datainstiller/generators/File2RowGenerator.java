@@ -0,0 +1,105 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Picks random row of tab separated resource file given as value and formats it with the pattern.
+ * Pattern refers to row columns by zero based index, e.g. "{1} {0} ${2}" for a product/SKU/price table,
+ * so all values come from the same row. Empty pattern returns the first column.
+ */
+public class File2RowGenerator implements GeneratorInterface {
+	private static final BoundedCache<String, RowTemplate> TEMPLATES = new BoundedCache<>();
+
+	@Override
+	public String generate(String pattern, String value) {
+		RowDictionary rows = RowDictionary.load("/" + value);
+		int row = rows.randomRow(RandomSources.current());
+		if (pattern == null || pattern.isEmpty()) {
+			return rows.get(row, 0);
+		}
+		RowTemplate template = TEMPLATES.get(pattern, RowTemplate::new);
+		if (template.maxColumn >= rows.getColumns()) {
+			throw new IllegalArgumentException("Column " + template.maxColumn + " doesn't exist in '" + value + "'");
+		}
+		return template.format(rows, row);
+	}
+
+	/**
+	 * Pattern parsed once into literal text and column references.
+	 */
+	private static final class RowTemplate {
+		private final String[] literals;
+		private final int[] columns;
+		private final int maxColumn;
+		private final int length;
+
+		RowTemplate(String pattern) {
+			List<String> literalList = new ArrayList<>();
+			List<Integer> columnList = new ArrayList<>();
+			StringBuilder literal = new StringBuilder();
+			int max = -1;
+			int i = 0;
+			while (i < pattern.length()) {
+				char c = pattern.charAt(i);
+				if (c == '{') {
+					int end = pattern.indexOf('}', i + 1);
+					if (end > i + 1 && isDigits(pattern, i + 1, end)) {
+						int column = Integer.parseInt(pattern.substring(i + 1, end));
+						literalList.add(literal.toString());
+						literal.setLength(0);
+						columnList.add(column);
+						max = Math.max(max, column);
+						i = end + 1;
+						continue;
+					}
+				}
+				literal.append(c);
+				i++;
+			}
+			literalList.add(literal.toString());
+			literals = literalList.toArray(new String[0]);
+			columns = new int[columnList.size()];
+			for (int j = 0; j < columns.length; j++) {
+				columns[j] = columnList.get(j);
+			}
+			maxColumn = max;
+			length = pattern.length();
+		}
+
+		String format(RowDictionary rows, int row) {
+			StringBuilder out = new StringBuilder(length + 32);
+			for (int i = 0; i < columns.length; i++) {
+				out.append(literals[i]).append(rows.get(row, columns[i]));
+			}
+			return out.append(literals[columns.length]).toString();
+		}
+	}
+
+	private static boolean isDigits(String text, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (!Character.isDigit(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
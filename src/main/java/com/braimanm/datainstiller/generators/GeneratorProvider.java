@@ -0,0 +1,32 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.braimanm.datainstiller.generators;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Service provider of custom generators discovered by {@link java.util.ServiceLoader} when the default
+ * {@link GeneratorRegistry} is created. Implementations are listed in
+ * "META-INF/services/com.braimanm.datainstiller.generators.GeneratorProvider" and should register suppliers,
+ * with {@link GeneratorRegistry#registerSupplier}, so generators are only created when they are used.
+ */
+public interface GeneratorProvider {
+
+	/**
+	 * @param registry registry to register generators to, built-in generators are already registered and can be replaced
+	 */
+	void registerGenerators(GeneratorRegistry registry);
+}
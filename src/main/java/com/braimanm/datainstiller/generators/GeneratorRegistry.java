@@ -0,0 +1,160 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.braimanm.datainstiller.generators;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Thread-safe registry of generators by generator type name. Generators are registered as suppliers and created
+ * on first use, every registered generator is a single shared instance, so it has to be thread-safe (built-in
+ * generators are). The default registry is shared by the whole process: it holds the built-in generators and
+ * generators of {@link GeneratorProvider}s found by {@link ServiceLoader}. A registry created with a parent
+ * holds overrides and falls back to the parent for other names.
+ */
+public class GeneratorRegistry {
+	private static final class DefaultHolder {
+		static final GeneratorRegistry DEFAULT = createDefault();
+	}
+
+	private final GeneratorRegistry parent;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	public GeneratorRegistry() {
+		this(null);
+	}
+
+	/**
+	 * @param parent registry to look up generators which aren't registered in this registry, might be null
+	 */
+	public GeneratorRegistry(GeneratorRegistry parent) {
+		this.parent = parent;
+	}
+
+	public static GeneratorRegistry getDefault() {
+		return DefaultHolder.DEFAULT;
+	}
+
+	private static GeneratorRegistry createDefault() {
+		GeneratorRegistry registry = new GeneratorRegistry();
+		registry.registerSupplier("ADDRESS", AddressGenerator::new);
+		registry.registerSupplier("ALPHANUMERIC", AlphaNumericGenerator::new);
+		registry.registerSupplier("CUSTOM_LIST", CustomListGenerator::new);
+		registry.registerSupplier("DATE", DateGenerator::new);
+		registry.registerSupplier("HUMAN_NAMES", HumanNameGenerator::new);
+		registry.registerSupplier("WORD", WordGenerator::new);
+		registry.registerSupplier("NUMBER", NumberGenerator::new);
+		registry.registerSupplier("FILE2LIST", File2ListGenerator::new);
+		registry.registerSupplier("FILE2ROW", File2RowGenerator::new);
+		registry.registerSupplier("RANDOM", RandomGenerator::new);
+		registry.registerSupplier("ENUM", EnumGenerator::new);
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		Iterator<GeneratorProvider> providers = ServiceLoader.load(GeneratorProvider.class,
+				(classLoader != null) ? classLoader : GeneratorRegistry.class.getClassLoader()).iterator();
+		while (hasNextProvider(providers)) {
+			try {
+				providers.next().registerGenerators(registry);
+			} catch (ServiceConfigurationError | RuntimeException e) {
+				System.err.println("[WARNING] Generator provider was skipped: " + e);
+			}
+		}
+		return registry;
+	}
+
+	private static boolean hasNextProvider(Iterator<GeneratorProvider> providers) {
+		try {
+			return providers.hasNext();
+		} catch (ServiceConfigurationError e) {
+			System.err.println("[WARNING] Generator providers discovery was stopped: " + e);
+			return false;
+		}
+	}
+
+	/**
+	 * @param name generator type name
+	 * @return registered generator or null if there is no generator with the given name
+	 */
+	public GeneratorInterface get(String name) {
+		Entry entry = entries.get(name);
+		if (entry != null) {
+			return entry.get();
+		}
+		return (parent != null) ? parent.get(name) : null;
+	}
+
+	/**
+	 * Registers generator instance, replacing generator previously registered with the same name
+	 */
+	public void register(String name, GeneratorInterface generator) {
+		entries.put(name, new Entry(generator));
+	}
+
+	/**
+	 * Registers generator supplier, the supplier is called once when the generator is used for the first time
+	 */
+	public void registerSupplier(String name, Supplier<? extends GeneratorInterface> supplier) {
+		entries.put(name, new Entry(supplier));
+	}
+
+	/**
+	 * @return names of generators registered in this registry and its parent
+	 */
+	public Set<String> getNames() {
+		if (parent == null) {
+			return Collections.unmodifiableSet(entries.keySet());
+		}
+		Set<String> names = new TreeSet<>(parent.getNames());
+		names.addAll(entries.keySet());
+		return Collections.unmodifiableSet(names);
+	}
+
+	private static final class Entry {
+		private Supplier<? extends GeneratorInterface> supplier;
+		private volatile GeneratorInterface generator;
+
+		Entry(GeneratorInterface generator) {
+			this.generator = generator;
+		}
+
+		Entry(Supplier<? extends GeneratorInterface> supplier) {
+			this.supplier = supplier;
+		}
+
+		GeneratorInterface get() {
+			GeneratorInterface result = generator;
+			if (result == null) {
+				synchronized (this) {
+					result = generator;
+					if (result == null) {
+						result = supplier.get();
+						generator = result;
+						supplier = null;
+					}
+				}
+			}
+			return result;
+		}
+	}
+}
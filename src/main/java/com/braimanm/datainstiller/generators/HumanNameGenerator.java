@@ -19,33 +19,38 @@ package com.braimanm.datainstiller.generators;
 import java.util.List;
 
 public class HumanNameGenerator extends File2ListReader implements GeneratorInterface{
-	private List<String> femaleNames = null;
-	private List<String> maleNames = null;
-	private List<String> sureNames = null;
+	private static final String NAME_KEYS = "FMAS";
+	private volatile List<String> femaleNames = null;
+	private volatile List<String> maleNames = null;
+	private volatile List<String> sureNames = null;
 	
 	
 	private void init() {
-		if (sureNames == null && femaleNames == null && maleNames == null) {
-			sureNames = populate("/sure_names");
-			femaleNames = populate("/female_names");
-			maleNames = populate("/male_names");
+		if (maleNames == null) {
+			synchronized (this) {
+				if (maleNames == null) {
+					sureNames = getDictionary("/sure_names");
+					femaleNames = getDictionary("/female_names");
+					maleNames = getDictionary("/male_names");
+				}
+			}
 		}
 	}
 	
 	public String getFemaleFirstName() {
 		init();
-		int index = (int) (Math.random() * femaleNames.size());
+		int index = RandomSources.current().nextInt(femaleNames.size());
 		return femaleNames.get(index);
 	}
 	
 	public String getMaleFirstName() {
 		init();
-		int index = (int) (Math.random() * maleNames.size());
+		int index = RandomSources.current().nextInt(maleNames.size());
 		return maleNames.get(index);
 	}
 	
 	public String getAnyFirstName() {
-		int sex = (int) (Math.random() * 2);
+		int sex = RandomSources.current().nextInt(2);
 		if (sex == 0) {
 			return getFemaleFirstName();
 		} else {
@@ -55,7 +60,7 @@ public class HumanNameGenerator extends File2ListReader implements GeneratorInte
 	
 	public String getSureName() {
 		init();
-		int index = (int) (Math.random() * sureNames.size());
+		int index = RandomSources.current().nextInt(sureNames.size());
 		return sureNames.get(index);
 	}
 	
@@ -66,20 +71,12 @@ public class HumanNameGenerator extends File2ListReader implements GeneratorInte
 	 *{S} - Sure Name
 	*/
 	public String getFullName(String format) {
-		String fullName = format;
-		if (format.contains("{F}")) {
-			fullName = fullName.replace("{F}", getFemaleFirstName());
-		}
-		if (format.contains("{M}")) {
-			fullName = fullName.replace("{M}", getMaleFirstName());
-		}
-		if (format.contains("{A}")){
-			fullName = fullName.replace("{A}", getAnyFirstName());
-		}
-		if (format.contains("{S}")){
-			fullName = fullName.replace("{S}", getSureName());
-		}
-		return fullName;
+		PlaceholderTemplate template = PlaceholderTemplate.compile(format, NAME_KEYS);
+		String female = template.references(0) ? getFemaleFirstName() : null;
+		String male = template.references(1) ? getMaleFirstName() : null;
+		String any = template.references(2) ? getAnyFirstName() : null;
+		String sure = template.references(3) ? getSureName() : null;
+		return template.render(female, male, any, sure);
 	}
 
 	@Override
@@ -16,44 +16,248 @@ Copyright 2010-2021 Michael Braiman braimanm@gmail.com
 
 package com.braimanm.datainstiller.generators;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
 
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Generates random number in the range given by value "min,max" (both inclusive, decimal bounds are allowed)
+ * formatted with {@link DecimalFormat} pattern. Numbers are generated exactly: integer patterns give uniformly
+ * distributed long values and patterns with fraction digits give uniformly distributed decimals with the
+ * pattern's number of fraction digits. Patterns with percent, per mille or exponent and ranges too wide for long
+ * arithmetic fall back to double arithmetic. Parsed ranges and formatters are cached in bounded caches keyed by
+ * pattern, the generator is thread-safe.
+ */
 @SuppressWarnings("unused")
-public class NumberGenerator implements GeneratorInterface{
-	
-	long minNum;
-	long maxNum;
-	String format;
-	
+public class NumberGenerator implements TypedGenerator {
+	private static final int MAX_POOLED_FORMATS = 8;
+	private static final Pattern PLAIN_INTEGER = Pattern.compile("#*0?");
+	private static final Pattern PLAIN_DECIMAL = Pattern.compile("#*0?(\\.0*#*)?");
+	private static final Pattern ZERO_PADDED_INTEGER = Pattern.compile("#*0*");
+	private static final BoundedCache<String, NumberFormat> FORMATS = new BoundedCache<>();
+	private static final BoundedCache<String, NumberSpec> SPECS = new BoundedCache<>();
+	private final NumberSpec spec;
+
 	public NumberGenerator() {
+		spec = null;
 	}
 
+	/**
+	 * @deprecated use {@link #generate(String, String)} with value "min,max"
+	 */
+	@Deprecated
 	public NumberGenerator(String min, String max, String format) {
-		minNum = Long.parseLong(min);
-		maxNum = Long.parseLong(max);
-		this.format = format;
+		spec = getSpec(format, Long.parseLong(min) + "," + Long.parseLong(max));
 	}
-	
+
+	/**
+	 * @deprecated use {@link #generate(String, String)} with value "min,max"
+	 */
+	@Deprecated
 	public String getNum(){
-		double num = minNum + Math.random() * (maxNum - minNum);
-		DecimalFormat dec = new DecimalFormat(format);
-		return dec.format(num);
+		return spec.generate(RandomSources.current());
+	}
+
+	private static NumberSpec getSpec(String pattern, String value) {
+		String key = pattern + '\u0000' + value;
+		NumberSpec spec = SPECS.get(key);
+		if (spec == null) {
+			spec = SPECS.put(key, new NumberSpec(FORMATS.get(pattern, NumberFormat::new), value));
+		}
+		return spec;
 	}
 
 	@Override
 	public String generate(String pattern, String value) {
-		String[] limits = value.split(",");
-		minNum = Long.parseLong(limits[0]);
-		maxNum = Long.parseLong(limits[1]);
-		format = pattern;
-		return getNum();
-	}
-	
-//	@Test
-//	public static void test(){
-//		NumberGenerator gen=new NumberGenerator("0", "1000","$###.##");
-//		System.out.println(gen.getNum());
-//		System.out.println(gen.generate("0,100", "##.000"));
-//	}
-	
+		return getSpec(pattern, value).generate(RandomSources.current());
+	}
+
+	/**
+	 * Integer types are supported for patterns without fraction digits and floating point and {@link BigDecimal} types
+	 * for patterns with optional fraction digits. Patterns with grouping, prefixes or suffixes are left to the string path.
+	 */
+	@Override
+	public boolean supports(Class<?> type, String pattern) {
+		if (pattern == null || pattern.isEmpty() || pattern.equals(".")) {
+			return false;
+		}
+		if (type == int.class || type == Integer.class || type == long.class || type == Long.class
+				|| type == short.class || type == Short.class || type == byte.class || type == Byte.class) {
+			return PLAIN_INTEGER.matcher(pattern).matches();
+		}
+		if (type == double.class || type == Double.class || type == float.class || type == Float.class || type == BigDecimal.class) {
+			return PLAIN_DECIMAL.matcher(pattern).matches();
+		}
+		return false;
+	}
+
+	@Override
+	public Object generate(Class<?> type, String pattern, String value) {
+		NumberSpec spec = getSpec(pattern, value);
+		RandomSource random = RandomSources.current();
+		if (!spec.exact) {
+			String number = spec.generate(random);
+			if (type == BigDecimal.class) {
+				return new BigDecimal(number);
+			}
+			if (type == double.class || type == Double.class || type == float.class || type == Float.class) {
+				double num = Double.parseDouble(number);
+				return (type == double.class || type == Double.class) ? (Object) num : (Object) (float) num;
+			}
+			return toIntegerType(type, Long.parseLong(number));
+		}
+		long unscaled = spec.nextUnscaled(random);
+		int scale = spec.format.scale;
+		if (type == BigDecimal.class) {
+			// trailing zeros of optional fraction digits are not formatted
+			while (scale > spec.format.minFractionDigits && unscaled % 10 == 0) {
+				unscaled /= 10;
+				scale--;
+			}
+			return BigDecimal.valueOf(unscaled, scale);
+		}
+		if (type == double.class || type == Double.class) {
+			return BigDecimal.valueOf(unscaled, scale).doubleValue();
+		}
+		if (type == float.class || type == Float.class) {
+			return BigDecimal.valueOf(unscaled, scale).floatValue();
+		}
+		return toIntegerType(type, unscaled);
+	}
+
+	private static Object toIntegerType(Class<?> type, long num) {
+		if (type == long.class || type == Long.class) {
+			return num;
+		}
+		if (type == int.class || type == Integer.class) {
+			checkRange(num, Integer.MIN_VALUE, Integer.MAX_VALUE);
+			return (int) num;
+		}
+		if (type == short.class || type == Short.class) {
+			checkRange(num, Short.MIN_VALUE, Short.MAX_VALUE);
+			return (short) num;
+		}
+		checkRange(num, Byte.MIN_VALUE, Byte.MAX_VALUE);
+		return (byte) num;
+	}
+
+	private static void checkRange(long num, long min, long max) {
+		if (num < min || num > max) {
+			throw new NumberFormatException("Value " + num + " is out of range [" + min + ", " + max + "]");
+		}
+	}
+
+	/**
+	 * Parsed pattern, zero padded integer patterns like "#" or "0000" are formatted without DecimalFormat.
+	 * DecimalFormat isn't thread-safe, a few copies of the parsed prototype are pooled and reused by callers.
+	 */
+	private static final class NumberFormat {
+		final DecimalFormat prototype;
+		final BlockingQueue<DecimalFormat> pool = new ArrayBlockingQueue<>(MAX_POOLED_FORMATS);
+		// number of fraction digits of generated values
+		final int scale;
+		final int minFractionDigits;
+		final boolean exact;
+		// minimum number of digits for zero padded integer patterns, -1 for other patterns
+		final int paddedDigits;
+
+		NumberFormat(String pattern) {
+			DecimalFormat format = new DecimalFormat(pattern);
+			prototype = format;
+			scale = format.getMaximumFractionDigits();
+			minFractionDigits = format.getMinimumFractionDigits();
+			exact = format.getMultiplier() == 1 && !pattern.contains("E") && scale <= 18;
+			paddedDigits = (!pattern.isEmpty() && ZERO_PADDED_INTEGER.matcher(pattern).matches()) ?
+					format.getMinimumIntegerDigits() : -1;
+		}
+
+		String formatDecimal(Object number) {
+			DecimalFormat format = pool.poll();
+			if (format == null) {
+				format = (DecimalFormat) prototype.clone();
+			}
+			try {
+				return format.format(number);
+			} finally {
+				pool.offer(format);
+			}
+		}
+
+		String format(long unscaled) {
+			if (scale > 0) {
+				return formatDecimal(BigDecimal.valueOf(unscaled, scale));
+			}
+			if (paddedDigits < 0) {
+				return formatDecimal(unscaled);
+			}
+			String digits = Long.toString(unscaled);
+			int sign = (unscaled < 0) ? 1 : 0;
+			int padding = paddedDigits - (digits.length() - sign);
+			if (padding <= 0) {
+				return digits;
+			}
+			StringBuilder out = new StringBuilder(digits.length() + padding);
+			out.append(digits, 0, sign);
+			for (int i = 0; i < padding; i++) {
+				out.append('0');
+			}
+			return out.append(digits, sign, digits.length()).toString();
+		}
+	}
+
+	/**
+	 * Range of values for the given format. When exact, the range is kept as unscaled long bounds with
+	 * the format's number of fraction digits.
+	 */
+	private static final class NumberSpec {
+		final NumberFormat format;
+		final boolean exact;
+		final long minUnscaled;
+		final long maxUnscaled;
+		final double min;
+		final double max;
+
+		NumberSpec(NumberFormat format, String value) {
+			this.format = format;
+			String[] limits = value.split(",");
+			BigDecimal min = new BigDecimal(limits[0].trim());
+			BigDecimal max = new BigDecimal(limits[1].trim());
+			this.min = min.doubleValue();
+			this.max = max.doubleValue();
+			long minUnscaled = 0;
+			long maxUnscaled = -1;
+			if (format.exact) {
+				try {
+					minUnscaled = min.movePointRight(format.scale).setScale(0, RoundingMode.CEILING).longValueExact();
+					maxUnscaled = max.movePointRight(format.scale).setScale(0, RoundingMode.FLOOR).longValueExact();
+				} catch (ArithmeticException e) {
+					minUnscaled = 0;
+					maxUnscaled = -1;
+				}
+			}
+			this.minUnscaled = minUnscaled;
+			this.maxUnscaled = maxUnscaled;
+			this.exact = format.exact && minUnscaled <= maxUnscaled;
+		}
+
+		long nextUnscaled(RandomSource random) {
+			if (maxUnscaled == Long.MAX_VALUE) {
+				return (minUnscaled == Long.MIN_VALUE) ? random.nextLong() : random.nextLong(minUnscaled - 1, maxUnscaled) + 1;
+			}
+			return random.nextLong(minUnscaled, maxUnscaled + 1);
+		}
+
+		String generate(RandomSource random) {
+			if (exact) {
+				return format.format(nextUnscaled(random));
+			}
+			double num = min + random.nextDouble() * (max - min);
+			return format.formatDecimal(num);
+		}
+	}
 }
@@ -0,0 +1,296 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Compact immutable list of strings. All entries are stored encoded in a single byte buffer with an offset table,
+ * instead of one String object per entry. Entries are decoded on every {@link #get(int)}, which is cheap for
+ * the short dictionary lines and keeps the whole dictionary in two contiguous buffers.
+ * <p>
+ * Dictionary can be saved in binary format (see {@link #write(OutputStream, boolean)}) which is loaded without
+ * any decoding: uncompressed files are memory-mapped, resources inside a jar are read with a single bulk read.
+ * Binary format (big-endian): magic "DIDC", version, flags (bit 0 - data is deflated), charset name (UTF-8
+ * length-prefixed), entries count, data length, offsets table (count + 1 ints), data bytes.
+ */
+public final class PackedDictionary extends AbstractList<String> implements RandomAccess {
+	public static final String FILE_EXTENSION = ".dict";
+	private static final int MAGIC = 0x44494443;
+	private static final int VERSION = 1;
+	private static final int FLAG_DEFLATED = 1;
+
+	private final ByteBuffer data;
+	// entry i occupies bytes [offsets[i], offsets[i + 1])
+	private final IntBuffer offsets;
+	private final Charset charset;
+
+	private PackedDictionary(ByteBuffer data, IntBuffer offsets, Charset charset) {
+		this.data = data;
+		this.offsets = offsets;
+		this.charset = charset;
+	}
+
+	/**
+	 * @param lines entries of the dictionary
+	 * @return dictionary with entries encoded in UTF-8
+	 */
+	public static PackedDictionary of(Collection<String> lines) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int[] offsets = new int[lines.size() + 1];
+		int i = 0;
+		for (String line : lines) {
+			byte[] encoded = line.getBytes(StandardCharsets.UTF_8);
+			out.write(encoded, 0, encoded.length);
+			offsets[++i] = out.size();
+		}
+		return new PackedDictionary(ByteBuffer.wrap(out.toByteArray()), IntBuffer.wrap(offsets), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads lines of the stream the same way {@link BufferedReader#readLine()} does, lines are kept in their
+	 * original encoding when the charset is ASCII compatible.
+	 * @param inputStream stream to read, it is not closed
+	 * @param charset charset of the stream
+	 * @return dictionary with stream lines
+	 * @throws IOException on read error
+	 */
+	public static PackedDictionary read(InputStream inputStream, Charset charset) throws IOException {
+		if (!Arrays.equals("\r\n".getBytes(charset), new byte[] {'\r', '\n'})) {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, charset));
+			List<String> lines = new ArrayList<>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+			return of(lines);
+		}
+		byte[] data = readFully(inputStream, 8192);
+		int[] offsets = new int[1024];
+		int count = 0;
+		int write = 0;
+		int read = 0;
+		while (read < data.length) {
+			int start = read;
+			while (read < data.length && data[read] != '\n' && data[read] != '\r') {
+				read++;
+			}
+			// line terminators are dropped by moving line content down
+			System.arraycopy(data, start, data, write, read - start);
+			write += read - start;
+			if (count + 1 == offsets.length) {
+				offsets = Arrays.copyOf(offsets, offsets.length * 2);
+			}
+			offsets[++count] = write;
+			if (read < data.length && data[read++] == '\r' && read < data.length && data[read] == '\n') {
+				read++;
+			}
+		}
+		return new PackedDictionary(ByteBuffer.wrap(Arrays.copyOf(data, write)), IntBuffer.wrap(Arrays.copyOf(offsets, count + 1)),
+				charset);
+	}
+
+	private static byte[] readFully(InputStream inputStream, int sizeHint) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(sizeHint, 32));
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = inputStream.read(buffer)) > 0) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Writes this dictionary in binary format.
+	 * @param outputStream stream to write to, it is not closed
+	 * @param compress deflate data bytes, compressed dictionaries can't be memory-mapped
+	 * @throws IOException on write error
+	 */
+	public void write(OutputStream outputStream, boolean compress) throws IOException {
+		byte[] bytes = new byte[data.limit()];
+		data.duplicate().get(bytes);
+		if (compress) {
+			Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+			deflater.setInput(bytes);
+			deflater.finish();
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 64);
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished()) {
+				compressed.write(buffer, 0, deflater.deflate(buffer));
+			}
+			deflater.end();
+			bytes = compressed.toByteArray();
+		}
+		DataOutputStream out = new DataOutputStream(outputStream);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(compress ? FLAG_DEFLATED : 0);
+		out.writeUTF(charset.name());
+		out.writeInt(size());
+		out.writeInt(bytes.length);
+		for (int i = 0; i <= size(); i++) {
+			out.writeInt(offsets.get(i));
+		}
+		out.write(bytes);
+		out.flush();
+	}
+
+	/**
+	 * Loads dictionary in binary format, the buffer is used as is without copying unless the data is compressed.
+	 * @param buffer buffer positioned at the beginning of the dictionary
+	 * @return loaded dictionary
+	 */
+	public static PackedDictionary load(ByteBuffer buffer) {
+		buffer = buffer.slice();
+		if (buffer.getInt() != MAGIC) {
+			throw new IllegalArgumentException("Not a packed dictionary");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported packed dictionary version " + version);
+		}
+		int flags = buffer.getInt();
+		byte[] charsetName = new byte[buffer.getShort() & 0xFFFF];
+		buffer.get(charsetName);
+		Charset charset = Charset.forName(new String(charsetName, StandardCharsets.UTF_8));
+		int count = buffer.getInt();
+		int length = buffer.getInt();
+		buffer.limit(buffer.position() + (count + 1) * 4);
+		IntBuffer offsets = buffer.slice().asIntBuffer();
+		buffer.position(buffer.limit()).limit(buffer.position() + length);
+		ByteBuffer data = buffer.slice();
+		if ((flags & FLAG_DEFLATED) != 0) {
+			data = ByteBuffer.wrap(inflate(data, offsets.get(count)));
+		}
+		return new PackedDictionary(data, offsets, charset);
+	}
+
+	private static byte[] inflate(ByteBuffer compressed, int length) {
+		byte[] input = new byte[compressed.remaining()];
+		compressed.get(input);
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(input);
+			byte[] output = new byte[length];
+			int n = 0;
+			while (n < length && !inflater.finished()) {
+				n += inflater.inflate(output, n, length - n);
+			}
+			return output;
+		} catch (DataFormatException e) {
+			throw new IllegalArgumentException("Corrupted packed dictionary", e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Loads dictionary in binary format. Files are memory-mapped, other resources (e.g. inside a jar) are read
+	 * with a single bulk read.
+	 * @param url location of the dictionary
+	 * @return loaded dictionary
+	 * @throws IOException on read error
+	 */
+	public static PackedDictionary load(URL url) throws IOException {
+		if ("file".equals(url.getProtocol())) {
+			File file;
+			try {
+				file = Paths.get(url.toURI()).toFile();
+			} catch (URISyntaxException e) {
+				file = new File(url.getPath());
+			}
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				return load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			}
+		}
+		URLConnection connection = url.openConnection();
+		long length = connection.getContentLengthLong();
+		try (InputStream in = connection.getInputStream()) {
+			if (length < 0 || length > Integer.MAX_VALUE) {
+				return load(ByteBuffer.wrap(readFully(in, 8192)));
+			}
+			byte[] bytes = new byte[(int) length];
+			int n = 0;
+			while (n < bytes.length) {
+				int read = in.read(bytes, n, bytes.length - n);
+				if (read < 0) {
+					throw new EOFException("Unexpected end of " + url);
+				}
+				n += read;
+			}
+			return load(ByteBuffer.wrap(bytes));
+		}
+	}
+
+	@Override
+	public String get(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		int start = offsets.get(index);
+		int length = offsets.get(index + 1) - start;
+		if (data.hasArray()) {
+			return new String(data.array(), data.arrayOffset() + start, length, charset);
+		}
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = data.get(start + i);
+		}
+		return new String(bytes, charset);
+	}
+
+	@Override
+	public int size() {
+		return offsets.limit() - 1;
+	}
+
+	/**
+	 * @return number of bytes used by the encoded entries
+	 */
+	public int getByteSize() {
+		return data.limit();
+	}
+}
@@ -0,0 +1,102 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Pattern with single character placeholders like "{F} {S}", parsed once and cached by pattern.
+ * Every placeholder key has an index (its position in the keys string) and all occurrences of the
+ * same placeholder are rendered with the same value. Text which isn't a known placeholder is kept as is.
+ */
+public final class PlaceholderTemplate {
+	private static final BoundedCache<String, PlaceholderTemplate> TEMPLATES = new BoundedCache<>();
+
+	private final String[] literals;
+	private final int[] placeholders;
+	private final boolean[] referenced;
+	private final int literalsLength;
+
+	private PlaceholderTemplate(String pattern, String keys) {
+		List<String> literalList = new ArrayList<>();
+		List<Integer> placeholderList = new ArrayList<>();
+		referenced = new boolean[keys.length()];
+		int literalStart = 0;
+		int length = 0;
+		for (int i = 0; i + 2 < pattern.length(); i++) {
+			int key;
+			if (pattern.charAt(i) == '{' && pattern.charAt(i + 2) == '}' && (key = keys.indexOf(pattern.charAt(i + 1))) >= 0) {
+				literalList.add(pattern.substring(literalStart, i));
+				length += i - literalStart;
+				placeholderList.add(key);
+				referenced[key] = true;
+				literalStart = i + 3;
+				i += 2;
+			}
+		}
+		literalList.add(pattern.substring(literalStart));
+		length += pattern.length() - literalStart;
+		literals = literalList.toArray(new String[0]);
+		placeholders = new int[placeholderList.size()];
+		for (int i = 0; i < placeholders.length; i++) {
+			placeholders[i] = placeholderList.get(i);
+		}
+		literalsLength = length;
+	}
+
+	/**
+	 * @param pattern pattern to compile
+	 * @param keys placeholder keys, e.g. "FMAS" for {F}, {M}, {A} and {S}
+	 * @return compiled template, shared by all callers
+	 */
+	public static PlaceholderTemplate compile(String pattern, String keys) {
+		String cacheKey = keys + '\u0000' + pattern;
+		PlaceholderTemplate template = TEMPLATES.get(cacheKey);
+		if (template == null) {
+			template = TEMPLATES.put(cacheKey, new PlaceholderTemplate(pattern, keys));
+		}
+		return template;
+	}
+
+	/**
+	 * @param key index of the placeholder key
+	 * @return true if the pattern contains the placeholder, only referenced values have to be generated
+	 */
+	public boolean references(int key) {
+		return referenced[key];
+	}
+
+	/**
+	 * @param values values indexed by placeholder key index, values of unreferenced placeholders are ignored
+	 * @return rendered text
+	 */
+	public String render(String... values) {
+		int length = literalsLength;
+		for (int placeholder : placeholders) {
+			String value = values[placeholder];
+			length += (value != null) ? value.length() : 4;
+		}
+		StringBuilder out = new StringBuilder(length);
+		for (int i = 0; i < placeholders.length; i++) {
+			out.append(literals[i]).append(values[placeholders[i]]);
+		}
+		return out.append(literals[placeholders.length]).toString();
+	}
+}
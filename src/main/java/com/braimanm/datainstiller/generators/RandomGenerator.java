@@ -0,0 +1,121 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Generates uniformly distributed random numbers. The value is optional range "min,max" (both inclusive),
+ * without range the whole range of the type is used: bytes and integers are random bits, floating point
+ * values are between 0.0 and 1.0. Characters are taken from the pattern, alphanumeric characters are used if
+ * the pattern is empty. Every element of primitive array gets its own random value, byte arrays without range
+ * are filled with a single bulk request to the random source.
+ */
+public class RandomGenerator implements BulkGenerator {
+	private static final String ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+	@Override
+	public String generate(String pattern, String value) {
+		RandomSource random = RandomSources.current();
+		if (value == null || value.isEmpty()) {
+			return String.valueOf(random.nextLong());
+		}
+		long[] range = parseRange(value);
+		return String.valueOf(nextLong(random, range[0], range[1]));
+	}
+
+	@Override
+	public boolean supports(Class<?> componentType, String pattern) {
+		return componentType.isPrimitive() && componentType != void.class;
+	}
+
+	@Override
+	public void fill(Object array, String pattern, String value) {
+		RandomSource random = RandomSources.current();
+		boolean ranged = value != null && !value.isEmpty();
+		long[] range = ranged ? parseRange(value) : null;
+		if (array instanceof byte[]) {
+			byte[] bytes = (byte[]) array;
+			if (!ranged) {
+				random.nextBytes(bytes);
+				return;
+			}
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = (byte) nextLong(random, range[0], range[1]);
+			}
+		} else if (array instanceof int[]) {
+			int[] ints = (int[]) array;
+			for (int i = 0; i < ints.length; i++) {
+				ints[i] = ranged ? (int) nextLong(random, range[0], range[1]) : random.nextInt();
+			}
+		} else if (array instanceof long[]) {
+			long[] longs = (long[]) array;
+			for (int i = 0; i < longs.length; i++) {
+				longs[i] = ranged ? nextLong(random, range[0], range[1]) : random.nextLong();
+			}
+		} else if (array instanceof short[]) {
+			short[] shorts = (short[]) array;
+			for (int i = 0; i < shorts.length; i++) {
+				shorts[i] = (short) (ranged ? nextLong(random, range[0], range[1]) : random.nextInt());
+			}
+		} else if (array instanceof double[]) {
+			double[] doubles = (double[]) array;
+			for (int i = 0; i < doubles.length; i++) {
+				doubles[i] = ranged ? nextDouble(random, range[0], range[1]) : random.nextDouble();
+			}
+		} else if (array instanceof float[]) {
+			float[] floats = (float[]) array;
+			for (int i = 0; i < floats.length; i++) {
+				floats[i] = (float) (ranged ? nextDouble(random, range[0], range[1]) : random.nextDouble());
+			}
+		} else if (array instanceof boolean[]) {
+			boolean[] booleans = (boolean[]) array;
+			for (int i = 0; i < booleans.length; i++) {
+				booleans[i] = random.nextBoolean();
+			}
+		} else if (array instanceof char[]) {
+			char[] chars = (char[]) array;
+			String alphabet = (pattern == null || pattern.isEmpty()) ? ALPHANUMERIC : pattern;
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = ranged ? (char) nextLong(random, range[0], range[1]) : alphabet.charAt(random.nextInt(alphabet.length()));
+			}
+		} else {
+			throw new IllegalArgumentException("Array of primitive type expected: " + array.getClass().getName());
+		}
+	}
+
+	private static long[] parseRange(String value) {
+		String[] limits = value.split(",");
+		long min = Long.parseLong(limits[0].trim());
+		long max = Long.parseLong(limits[1].trim());
+		if (min > max) {
+			throw new IllegalArgumentException("Invalid range " + value);
+		}
+		return new long[] {min, max};
+	}
+
+	private static long nextLong(RandomSource random, long min, long max) {
+		if (max == Long.MAX_VALUE) {
+			return (min == Long.MIN_VALUE) ? random.nextLong() : random.nextLong(min - 1, max) + 1;
+		}
+		return random.nextLong(min, max + 1);
+	}
+
+	private static double nextDouble(RandomSource random, long min, long max) {
+		return min + random.nextDouble() * (max - min);
+	}
+}
@@ -0,0 +1,134 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Source of random numbers used by all generators. Implementations only have to provide {@link #nextLong()},
+ * every other method is derived from it. Unless stated otherwise implementations are not thread-safe,
+ * use {@link #split()} to get an independent source for another thread.
+ * Generators obtain the source bound to the current thread through {@link RandomSources#current()}.
+ */
+public interface RandomSource {
+
+	/**
+	 * @return uniformly distributed 64 bit value
+	 */
+	long nextLong();
+
+	/**
+	 * @return uniformly distributed 32 bit value
+	 */
+	default int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	/**
+	 * @param bound upper bound (exclusive), must be positive
+	 * @return uniformly distributed value between 0 (inclusive) and bound (exclusive)
+	 */
+	default int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive: " + bound);
+		}
+		int r = nextInt() >>> 1;
+		int m = bound - 1;
+		if ((bound & m) == 0) {
+			return (int) ((bound * (long) r) >> 31);
+		}
+		for (int u = r; u - (r = u % bound) + m < 0; u = nextInt() >>> 1) {
+			// reject values from the incomplete last range
+		}
+		return r;
+	}
+
+	/**
+	 * @param bound upper bound (exclusive), must be positive
+	 * @return uniformly distributed value between 0 (inclusive) and bound (exclusive)
+	 */
+	default long nextLong(long bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive: " + bound);
+		}
+		long r = nextLong();
+		long m = bound - 1;
+		if ((bound & m) == 0L) {
+			return r & m;
+		}
+		for (long u = r >>> 1; u + m - (r = u % bound) < 0L; u = nextLong() >>> 1) {
+			// reject values from the incomplete last range
+		}
+		return r;
+	}
+
+	/**
+	 * @param origin lower bound (inclusive)
+	 * @param bound upper bound (exclusive), must be greater than origin
+	 * @return uniformly distributed value between origin (inclusive) and bound (exclusive)
+	 */
+	default long nextLong(long origin, long bound) {
+		if (origin >= bound) {
+			throw new IllegalArgumentException("bound must be greater than origin: " + origin + " >= " + bound);
+		}
+		long n = bound - origin;
+		if (n > 0) {
+			return origin + nextLong(n);
+		}
+		long r;
+		do {
+			r = nextLong();
+		} while (r < origin || r >= bound);
+		return r;
+	}
+
+	/**
+	 * @return uniformly distributed value between 0.0 (inclusive) and 1.0 (exclusive)
+	 */
+	default double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	default boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+
+	/**
+	 * Fills the given array with random bytes, eight bytes are taken from every generated long value.
+	 * @param bytes array to fill
+	 */
+	default void nextBytes(byte[] bytes) {
+		int i = 0;
+		int length = bytes.length;
+		while (i + 8 <= length) {
+			long r = nextLong();
+			for (int n = 0; n < 8; n++, r >>>= 8) {
+				bytes[i++] = (byte) r;
+			}
+		}
+		if (i < length) {
+			for (long r = nextLong(); i < length; r >>>= 8) {
+				bytes[i++] = (byte) r;
+			}
+		}
+	}
+
+	/**
+	 * @return new source which is statistically independent from this one, intended for use by another thread
+	 */
+	RandomSource split();
+}
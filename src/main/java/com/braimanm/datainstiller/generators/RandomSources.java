@@ -0,0 +1,79 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Factory of the bundled {@link RandomSource} implementations and holder of the source bound to the current thread.
+ * {@link com.braimanm.datainstiller.data.DataGenerator} binds its configured source while it generates data,
+ * generators used outside of it get the thread-safe {@link ThreadLocalRandomSource}.
+ */
+public final class RandomSources {
+	private static final ThreadLocal<RandomSource> CURRENT = new ThreadLocal<>();
+
+	private RandomSources() {
+	}
+
+	/**
+	 * @return source bound to the current thread or {@link #threadLocal()} if none is bound
+	 */
+	public static RandomSource current() {
+		RandomSource source = CURRENT.get();
+		return (source != null) ? source : ThreadLocalRandomSource.INSTANCE;
+	}
+
+	/**
+	 * Binds the given source to the current thread.
+	 * @param source source to bind, null removes the binding
+	 * @return previously bound source or null, should be restored with another call to this method
+	 */
+	public static RandomSource bind(RandomSource source) {
+		RandomSource previous = CURRENT.get();
+		if (source == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(source);
+		}
+		return previous;
+	}
+
+	public static RandomSource threadLocal() {
+		return ThreadLocalRandomSource.INSTANCE;
+	}
+
+	public static RandomSource splittable(long seed) {
+		return new SplittableRandomSource(seed);
+	}
+
+	public static RandomSource splitMix64(long seed) {
+		return new SplitMix64RandomSource(seed);
+	}
+
+	public static RandomSource xoshiro256(long seed) {
+		return new Xoshiro256RandomSource(seed);
+	}
+
+	/**
+	 * @param delegate source used to refill the buffer
+	 * @param batchSize number of values generated on every refill
+	 * @return source which hands out values from a buffer filled by the delegate
+	 */
+	public static RandomSource batched(RandomSource delegate, int batchSize) {
+		return new BatchedRandomSource(delegate, batchSize);
+	}
+}
@@ -0,0 +1,134 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Immutable table parsed once from tab separated lines. Data is stored by column: every column keeps its distinct
+ * values once and an index of the value for every row, so repeated values (e.g. province names) are shared.
+ * Values of the same row are picked in constant time without any parsing. Rows with fewer columns than the first
+ * row have empty values in the missing columns, extra columns are ignored.
+ */
+public final class RowDictionary {
+	private final String[][] columnValues;
+	private final int[][] columnIndexes;
+	private final int rows;
+
+	private RowDictionary(String[][] columnValues, int[][] columnIndexes, int rows) {
+		this.columnValues = columnValues;
+		this.columnIndexes = columnIndexes;
+		this.rows = rows;
+	}
+
+	/**
+	 * @param lines tab separated lines
+	 * @return parsed table
+	 */
+	public static RowDictionary of(List<String> lines) {
+		int rows = lines.size();
+		int columns = (rows == 0) ? 0 : countColumns(lines.get(0));
+		List<Map<String, Integer>> distinct = new ArrayList<>(columns);
+		int[][] columnIndexes = new int[columns][rows];
+		for (int column = 0; column < columns; column++) {
+			distinct.add(new HashMap<>());
+		}
+		for (int row = 0; row < rows; row++) {
+			String line = lines.get(row);
+			int start = 0;
+			for (int column = 0; column < columns; column++) {
+				String value;
+				if (start > line.length()) {
+					value = "";
+				} else {
+					int end = line.indexOf('\t', start);
+					if (end < 0) {
+						end = line.length();
+					}
+					value = line.substring(start, end);
+					start = end + 1;
+				}
+				Map<String, Integer> values = distinct.get(column);
+				Integer index = values.get(value);
+				if (index == null) {
+					index = values.size();
+					values.put(value, index);
+				}
+				columnIndexes[column][row] = index;
+			}
+		}
+		String[][] columnValues = new String[columns][];
+		for (int column = 0; column < columns; column++) {
+			columnValues[column] = new String[distinct.get(column).size()];
+			for (Map.Entry<String, Integer> entry : distinct.get(column).entrySet()) {
+				columnValues[column][entry.getValue()] = entry.getKey();
+			}
+		}
+		return new RowDictionary(columnValues, columnIndexes, rows);
+	}
+
+	private static int countColumns(String line) {
+		int columns = 1;
+		for (int i = line.indexOf('\t'); i >= 0; i = line.indexOf('\t', i + 1)) {
+			columns++;
+		}
+		return columns;
+	}
+
+	/**
+	 * Loads tab separated classpath resource, parsed tables are kept in {@link DictionaryCache#getDefault()}
+	 * and shared by all callers.
+	 * @param resourceName classpath resource name
+	 * @return parsed table
+	 */
+	public static RowDictionary load(String resourceName) {
+		return DictionaryCache.getDefault().get(resourceName, RowDictionary.class, RowDictionary::of);
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columnValues.length;
+	}
+
+	/**
+	 * @param row row index
+	 * @param column column index
+	 * @return value of the cell
+	 */
+	public String get(int row, int column) {
+		return columnValues[column][columnIndexes[column][row]];
+	}
+
+	/**
+	 * @param random random source
+	 * @return index of uniformly chosen row
+	 */
+	public int randomRow(RandomSource random) {
+		if (rows == 0) {
+			throw new RuntimeException("The dictionary is empty!");
+		}
+		return random.nextInt(rows);
+	}
+}
@@ -0,0 +1,54 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * SplitMix64 {@link RandomSource}: a Weyl sequence scrambled by the MurmurHash3 style finalizer {@link #mix64(long)}.
+ * Very fast, seedable and not thread-safe.
+ */
+public class SplitMix64RandomSource implements RandomSource {
+	static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private long state;
+
+	public SplitMix64RandomSource(long seed) {
+		this.state = seed;
+	}
+
+	/**
+	 * Stafford's variant 13 of the 64 bit MurmurHash3 finalizer
+	 * @param z value to mix
+	 * @return mixed value
+	 */
+	public static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public long nextLong() {
+		return mix64(state += GOLDEN_GAMMA);
+	}
+
+	@Override
+	public RandomSource split() {
+		return new SplitMix64RandomSource(mix64(nextLong()));
+	}
+}
@@ -0,0 +1,65 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Thread-safe {@link RandomSource} backed by {@link ThreadLocalRandom}. It can't be seeded,
+ * this is the default source used when no other source is bound to the current thread.
+ */
+public final class ThreadLocalRandomSource implements RandomSource {
+	static final ThreadLocalRandomSource INSTANCE = new ThreadLocalRandomSource();
+
+	private ThreadLocalRandomSource() {
+	}
+
+	@Override
+	public long nextLong() {
+		return ThreadLocalRandom.current().nextLong();
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		return ThreadLocalRandom.current().nextInt(bound);
+	}
+
+	@Override
+	public long nextLong(long bound) {
+		return ThreadLocalRandom.current().nextLong(bound);
+	}
+
+	@Override
+	public double nextDouble() {
+		return ThreadLocalRandom.current().nextDouble();
+	}
+
+	@Override
+	public void nextBytes(byte[] bytes) {
+		ThreadLocalRandom.current().nextBytes(bytes);
+	}
+
+	/**
+	 * @return this instance, it is already thread-safe
+	 */
+	@Override
+	public RandomSource split() {
+		return this;
+	}
+}
@@ -0,0 +1,44 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Generator which can produce values of the field type directly, without formatting the value to a string
+ * which is parsed back by XStream converter. {@link com.braimanm.datainstiller.data.DataGenerator} prefers this path
+ * whenever {@link #supports(Class, String)} returns true and falls back to {@link #generate(String, String)} otherwise.
+ * When the string path can produce the field type, the typed value must be equal to the value XStream would produce
+ * from the string generated for the same arguments.
+ */
+public interface TypedGenerator extends GeneratorInterface {
+
+	/**
+	 * @param type type of the generated value, might be primitive
+	 * @param pattern generator pattern
+	 * @return true if values of the given type can be generated directly for the given pattern
+	 */
+	boolean supports(Class<?> type, String pattern);
+
+	/**
+	 * @param type type of the generated value, only called for types supported by {@link #supports(Class, String)}
+	 * @param pattern generator pattern
+	 * @param value generator value
+	 * @return generated value of the given type (boxed for primitive types), never null
+	 */
+	Object generate(Class<?> type, String pattern, String value);
+}
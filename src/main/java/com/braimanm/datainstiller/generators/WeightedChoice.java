@@ -0,0 +1,241 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.braimanm.datainstiller.generators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * Immutable list of values sampled according to their weights in constant time with Walker/Vose alias table.
+ * Weighted lists are written as "GOLD:1,SILVER:5,BRONZE:20", the weight follows the last ':' of the entry.
+ * Weights are never guessed from the values: generators parse weights only when the field pattern is
+ * {@link #WEIGHTED}, so lists like "09:00,12:30" keep their entries as they are. Parsed lists are cached,
+ * instances are thread-safe.
+ */
+public final class WeightedChoice<T> {
+	/**
+	 * Generator pattern which turns on weights of list entries
+	 */
+	public static final String WEIGHTED = "WEIGHTED";
+	private static final BoundedCache<String, WeightedChoice<String>> UNIFORM_CACHE = new BoundedCache<>();
+	private static final BoundedCache<String, WeightedChoice<String>> WEIGHTED_CACHE = new BoundedCache<>();
+
+	private final List<T> values;
+	private final double[] weights;
+	// alias table, both arrays are null for uniform choice
+	private final double[] probability;
+	private final int[] alias;
+
+	private WeightedChoice(List<T> values, double[] weights) {
+		if (values.isEmpty()) {
+			throw new RuntimeException("The list of values is empty!");
+		}
+		this.values = values;
+		this.weights = weights;
+		if (weights == null) {
+			probability = null;
+			alias = null;
+			return;
+		}
+		int n = weights.length;
+		double total = 0;
+		for (double weight : weights) {
+			if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+				throw new RuntimeException("Invalid weight " + weight + " in " + values);
+			}
+			total += weight;
+		}
+		if (total <= 0 || Double.isInfinite(total)) {
+			throw new RuntimeException("Total weight of " + values + " must be positive and finite");
+		}
+		probability = new double[n];
+		alias = new int[n];
+		double[] scaled = new double[n];
+		int[] small = new int[n];
+		int[] large = new int[n];
+		int smallSize = 0;
+		int largeSize = 0;
+		for (int i = 0; i < n; i++) {
+			scaled[i] = weights[i] * n / total;
+			if (scaled[i] < 1.0) {
+				small[smallSize++] = i;
+			} else {
+				large[largeSize++] = i;
+			}
+		}
+		while (smallSize > 0 && largeSize > 0) {
+			int less = small[--smallSize];
+			int more = large[--largeSize];
+			probability[less] = scaled[less];
+			alias[less] = more;
+			scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+			if (scaled[more] < 1.0) {
+				small[smallSize++] = more;
+			} else {
+				large[largeSize++] = more;
+			}
+		}
+		// remaining entries are full up to rounding errors
+		while (largeSize > 0) {
+			probability[large[--largeSize]] = 1.0;
+		}
+		while (smallSize > 0) {
+			probability[small[--smallSize]] = 1.0;
+		}
+	}
+
+	/**
+	 * @param values values to choose from
+	 * @param weights non negative weights of the values, null for uniform choice
+	 * @return choice of the given values
+	 */
+	public static <T> WeightedChoice<T> of(List<T> values, double[] weights) {
+		if (weights != null && weights.length != values.size()) {
+			throw new RuntimeException("Number of weights " + weights.length + " doesn't match number of values " + values.size());
+		}
+		return new WeightedChoice<>(Collections.unmodifiableList(new ArrayList<>(values)),
+				(weights != null) ? weights.clone() : null);
+	}
+
+	/**
+	 * @param values values to choose from uniformly
+	 * @return uniform choice of the given values, the list is used as is and shouldn't be modified
+	 */
+	public static <T> WeightedChoice<T> uniform(List<T> values) {
+		return new WeightedChoice<>(values, null);
+	}
+
+	/**
+	 * @param value comma separated list
+	 * @param weighted true if every entry is weighted "name:weight", false to choose entries as they are uniformly
+	 * @return cached choice of the list entries
+	 */
+	public static WeightedChoice<String> parse(String value, boolean weighted) {
+		BoundedCache<String, WeightedChoice<String>> cache = weighted ? WEIGHTED_CACHE : UNIFORM_CACHE;
+		return cache.get(value, list -> parse(Arrays.asList(list.split(",")), weighted));
+	}
+
+	/**
+	 * @param entries list entries, for example lines of dictionary
+	 * @param weighted true if every entry is weighted "name:weight", false to choose entries as they are uniformly
+	 * @return choice of the entries
+	 */
+	public static WeightedChoice<String> parse(List<String> entries, boolean weighted) {
+		if (!weighted) {
+			return uniform(entries);
+		}
+		List<String> names = new ArrayList<>(entries.size());
+		double[] weights = new double[entries.size()];
+		for (int i = 0; i < entries.size(); i++) {
+			String entry = entries.get(i);
+			int separator = entry.lastIndexOf(':');
+			double weight = (separator > 0) ? parseWeight(entry.substring(separator + 1)) : -1;
+			if (weight < 0) {
+				throw new RuntimeException("Entry '" + entry + "' has no weight, weighted entries are written as \"name:weight\"");
+			}
+			names.add(entry.substring(0, separator));
+			weights[i] = weight;
+		}
+		return new WeightedChoice<>(Collections.unmodifiableList(names), weights);
+	}
+
+	private static double parseWeight(String weight) {
+		weight = weight.trim();
+		if (weight.isEmpty() || !Character.isDigit(weight.charAt(0)) && weight.charAt(0) != '.') {
+			return -1;
+		}
+		try {
+			double value = Double.parseDouble(weight);
+			return Double.isInfinite(value) || Double.isNaN(value) ? -1 : value;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @return values of this choice without weights
+	 */
+	public List<T> getValues() {
+		return values;
+	}
+
+	/**
+	 * @param index index of the value
+	 * @return weight of the value, 1 for uniform choice
+	 */
+	public double getWeight(int index) {
+		return (weights != null) ? weights[index] : 1;
+	}
+
+	public boolean isWeighted() {
+		return weights != null;
+	}
+
+	/**
+	 * @param random source of randomness
+	 * @return index of the chosen value
+	 */
+	public int nextIndex(RandomSource random) {
+		int index = random.nextInt(values.size());
+		if (probability == null || random.nextDouble() < probability[index]) {
+			return index;
+		}
+		return alias[index];
+	}
+
+	/**
+	 * @return value chosen with the random source of the current thread
+	 */
+	public T next() {
+		return next(RandomSources.current());
+	}
+
+	public T next(RandomSource random) {
+		return values.get(nextIndex(random));
+	}
+
+	/**
+	 * Chooses distinct values, values with higher weight are more likely to be chosen first (weighted sampling
+	 * without replacement). Values with zero weight are never chosen.
+	 * @param random source of randomness
+	 * @param count number of values to choose
+	 * @return indexes of chosen values, fewer than count if there are not enough values with positive weight
+	 */
+	public int[] nextIndexes(RandomSource random, int count) {
+		int n = values.size();
+		double[] keys = new double[n];
+		Integer[] order = new Integer[n];
+		int candidates = 0;
+		for (int i = 0; i < n; i++) {
+			double weight = getWeight(i);
+			if (weight > 0) {
+				// Efraimidis-Spirakis key, the largest keys win
+				keys[i] = Math.log(1.0 - random.nextDouble()) / weight;
+				order[candidates++] = i;
+			}
+		}
+		Arrays.sort(order, 0, candidates, (a, b) -> Double.compare(keys[b], keys[a]));
+		int[] indexes = new int[Math.min(Math.max(count, 0), candidates)];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = order[i];
+		}
+		return indexes;
+	}
+}
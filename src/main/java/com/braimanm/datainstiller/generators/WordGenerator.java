@@ -16,47 +16,76 @@ Copyright 2010-2021 Michael Braiman braimanm@gmail.com
 
 package com.braimanm.datainstiller.generators;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 public class WordGenerator extends File2ListReader implements GeneratorInterface{
-	List<String> words = null;
-	
-	
-	private void init() {
-		if (words == null){
-			words = populate("/words_en");
-		}
+	private static final int LOWER_CASE = 0;
+	private static final int UPPER_CASE = 1;
+	private static final int CAPITALIZED = 2;
+	private static final BoundedCache<String, Program> PROGRAMS = new BoundedCache<>();
+
+	private static final class IndexHolder {
+		static final WordIndex INDEX = new WordIndex(DictionaryCache.getDefault().get("/words_en"));
 	}
 
-	@SuppressWarnings("SameParameterValue")
-	private String getWord(int lettersCount, boolean fromStart, int letterCase) {
-		init();
-		int count = lettersCount;
-		int index = (int) (Math.random() * words.size());
-		String word = words.get(index).toLowerCase();
-		if (letterCase == 1) {
-			word=word.toUpperCase();
+	/**
+	 * Words normalized to every case variant, all words and words of every length from 1 to 10.
+	 */
+	private static final class WordIndex {
+		private static final int MAX_LENGTH = 10;
+		// [length][case][index], length 0 holds all words
+		private final String[][][] words = new String[MAX_LENGTH + 1][][];
+
+		WordIndex(List<String> dictionary) {
+			List<String> all = new ArrayList<>(dictionary.size());
+			for (String word : dictionary) {
+				all.add(word.toLowerCase());
+			}
+			words[0] = variants(all);
+			for (int length = 1; length <= MAX_LENGTH; length++) {
+				Set<String> exact = new LinkedHashSet<>();
+				for (String word : all) {
+					if (word.length() == length) {
+						exact.add(word);
+					}
+				}
+				if (exact.isEmpty()) {
+					// no word of this length, prefixes of longer words are used
+					for (String word : all) {
+						if (word.length() > length) {
+							exact.add(word.substring(0, length));
+						}
+					}
+				}
+				words[length] = exact.isEmpty() ? words[0] : variants(new ArrayList<>(exact));
+			}
+		}
+
+		private static String[][] variants(List<String> lowerCase) {
+			String[][] variants = new String[3][lowerCase.size()];
+			for (int i = 0; i < lowerCase.size(); i++) {
+				String word = lowerCase.get(i);
+				variants[LOWER_CASE][i] = word;
+				variants[UPPER_CASE][i] = word.toUpperCase();
+				variants[CAPITALIZED][i] = word.isEmpty() ? word : word.substring(0, 1).toUpperCase() + word.substring(1);
+			}
+			return variants;
 		}
-		if (letterCase == 3) {
-			word = word.substring(0,1).toUpperCase() + word.substring(1);
+
+		String getWord(RandomSource random, int length, int letterCase) {
+			String[] bucket = words[Math.min(length, MAX_LENGTH)][letterCase];
+			return bucket[random.nextInt(bucket.length)];
 		}
-		if (lettersCount == -1) return word;
-		if (lettersCount == 0) count = (int) (Math.random() * 10) + 1;
-		if (count > word.length()) return word;
-		if (fromStart) {
-			return word.substring(0, count);
-		} else {
-			return word.substring(word.length() - count);
-		}		
 	}
-	
+
 //	{A}-{Z} or {a}-{z}:  Replaced by random English word, if tag contains upper-case letter word will be in upper-case and if tag contains lower-case letter word will be in lower-case
 //	[A]-[z]:  Replaced by random English word, with random letter casing
 //	|A|-|z|:  Replaced by capitalized random English word; 
-//	{A:0-9}-{Z:0-9} or {a:0-9}-{z:0-9}: Replaced by number (1-9) of upper-case or lower-case characters from the start of random English word, if number is 0 then replaced word will have random number between 1 to 9 of characters .  
-//	[A:0-9]-[Z:0-9] - Replaced by number (1-9) of random letter casing characters from the end of random English word, if number is 0 then replaced word will have random number between 1 to 9 of characters   
+//	{A:0-9}-{Z:0-9} or {a:0-9}-{z:0-9}: Replaced by upper-case or lower-case English word with given number (1-9) of characters, if number is 0 then replaced word will have random number between 1 to 10 of characters .  
+//	[A:0-9]-[Z:0-9] - Replaced by random letter casing English word with given number (1-9) of characters, if number is 0 then replaced word will have random number between 1 to 10 of characters   
 //
 //	Additional rules:
 //	Same tag in pattern will be replaced by the same word 
@@ -64,23 +93,108 @@ public class WordGenerator extends File2ListReader implements GeneratorInterface
 //	[A] and {A} are not replaced by the same word
 
 	public String generate(String pattern) {
-		Pattern patt = Pattern.compile("[{|\\[][a-zA-Z](:\\d)*[|}\\]]");
-		Matcher matcher = patt.matcher(pattern);
-		String out = pattern;
-		while (matcher.find()) {
-			int letterCase = 0;
-			int letterCount = -1;
-			char brkt = matcher.group().charAt(0);
-			char c = matcher.group().charAt(1);
-			if (brkt == 123 && c >= 65 && c <= 90) letterCase = 1;
-			if (brkt == 91) letterCase = (int) (Math.random() * 3);
-			if (brkt == 124) letterCase = 3;
-			if (matcher.end() - matcher.start() > 3) {
-				letterCount = matcher.group().charAt(3) - 48;
+		Program program = PROGRAMS.get(pattern, Program::new);
+		return program.execute(IndexHolder.INDEX, RandomSources.current());
+	}
+
+	/**
+	 * Pattern compiled to literal runs and word tags. Repeated tags refer to the tag of their first occurrence.
+	 */
+	private static final class Program {
+		private static final int RANDOM_CASE = -1;
+		private static final int ANY_LENGTH = -1;
+		private static final int RANDOM_LENGTH = 0;
+
+		private final String[] literals;
+		private final int[] letterCases;
+		private final int[] lengths;
+		// index of the tag with the same text or -1 for the first occurrence
+		private final int[] sameAs;
+
+		Program(String pattern) {
+			List<String> literalList = new ArrayList<>();
+			List<int[]> tags = new ArrayList<>();
+			List<String> tagTexts = new ArrayList<>();
+			int length = pattern.length();
+			int literalStart = 0;
+			int i = 0;
+			while (i < length) {
+				int end = tagEnd(pattern, i);
+				if (end < 0) {
+					i++;
+					continue;
+				}
+				String text = pattern.substring(i, end);
+				char bracket = text.charAt(0);
+				char c = text.charAt(1);
+				int letterCase = LOWER_CASE;
+				if (bracket == '{' && c >= 'A' && c <= 'Z') letterCase = UPPER_CASE;
+				if (bracket == '[') letterCase = RANDOM_CASE;
+				if (bracket == '|') letterCase = CAPITALIZED;
+				int letterCount = (text.length() > 3) ? text.charAt(3) - '0' : ANY_LENGTH;
+				literalList.add(pattern.substring(literalStart, i));
+				tags.add(new int[] {letterCase, letterCount, tagTexts.indexOf(text)});
+				tagTexts.add(text);
+				literalStart = end;
+				i = end;
+			}
+			literalList.add(pattern.substring(literalStart));
+			literals = literalList.toArray(new String[0]);
+			letterCases = new int[tags.size()];
+			lengths = new int[tags.size()];
+			sameAs = new int[tags.size()];
+			for (int n = 0; n < tags.size(); n++) {
+				letterCases[n] = tags.get(n)[0];
+				lengths[n] = tags.get(n)[1];
+				sameAs[n] = tags.get(n)[2];
+			}
+		}
+
+		/**
+		 * @return end of the tag starting at the given index or -1 if there is no tag there
+		 */
+		private static int tagEnd(String pattern, int start) {
+			int length = pattern.length();
+			if (start + 2 >= length || "{|[".indexOf(pattern.charAt(start)) < 0) {
+				return -1;
+			}
+			char c = pattern.charAt(start + 1);
+			if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+				return -1;
+			}
+			int i = start + 2;
+			while (i + 1 < length && pattern.charAt(i) == ':' && Character.isDigit(pattern.charAt(i + 1))) {
+				i += 2;
+			}
+			if (i < length && "|}]".indexOf(pattern.charAt(i)) >= 0) {
+				return i + 1;
+			}
+			return -1;
+		}
+
+		String execute(WordIndex index, RandomSource random) {
+			StringBuilder out = new StringBuilder(literals.length * 12);
+			String[] words = new String[lengths.length];
+			for (int tag = 0; tag < lengths.length; tag++) {
+				out.append(literals[tag]);
+				if (sameAs[tag] >= 0) {
+					words[tag] = words[sameAs[tag]];
+				} else {
+					int letterCase = letterCases[tag];
+					if (letterCase == RANDOM_CASE) {
+						letterCase = (random.nextInt(3) == UPPER_CASE) ? UPPER_CASE : LOWER_CASE;
+					}
+					int length = lengths[tag];
+					if (length == RANDOM_LENGTH) {
+						length = random.nextInt(10) + 1;
+					}
+					words[tag] = index.getWord(random, (length == ANY_LENGTH) ? 0 : length, letterCase);
+				}
+				out.append(words[tag]);
 			}
-			out = out.replace(matcher.group(), getWord(letterCount, true, letterCase));
+			out.append(literals[lengths.length]);
+			return out.toString();
 		}
-		return out;
 	}
 
 	@Override
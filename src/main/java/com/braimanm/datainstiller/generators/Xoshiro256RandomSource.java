@@ -0,0 +1,89 @@
+/*
+Copyright 2010-2021 Michael Braiman braimanm@gmail.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.braimanm.datainstiller.generators;
+
+/**
+ * @author Michael Braiman braimanm@gmail.com
+ *
+ * xoshiro256** {@link RandomSource} with 256 bit state seeded by SplitMix64. Seedable and not thread-safe,
+ * {@link #split()} hands out a copy and advances this source by 2^128 values, so split sources never overlap.
+ */
+public class Xoshiro256RandomSource implements RandomSource {
+	private static final long[] JUMP = {0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL, 0x39abdc4529b1661cL};
+
+	private long s0;
+	private long s1;
+	private long s2;
+	private long s3;
+
+	public Xoshiro256RandomSource(long seed) {
+		SplitMix64RandomSource seeder = new SplitMix64RandomSource(seed);
+		s0 = seeder.nextLong();
+		s1 = seeder.nextLong();
+		s2 = seeder.nextLong();
+		s3 = seeder.nextLong();
+	}
+
+	private Xoshiro256RandomSource(long s0, long s1, long s2, long s3) {
+		this.s0 = s0;
+		this.s1 = s1;
+		this.s2 = s2;
+		this.s3 = s3;
+	}
+
+	@Override
+	public long nextLong() {
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+
+	private void jump() {
+		long j0 = 0;
+		long j1 = 0;
+		long j2 = 0;
+		long j3 = 0;
+		for (long jump : JUMP) {
+			for (int b = 0; b < 64; b++) {
+				if ((jump & (1L << b)) != 0) {
+					j0 ^= s0;
+					j1 ^= s1;
+					j2 ^= s2;
+					j3 ^= s3;
+				}
+				nextLong();
+			}
+		}
+		s0 = j0;
+		s1 = j1;
+		s2 = j2;
+		s3 = j3;
+	}
+
+	@Override
+	public RandomSource split() {
+		Xoshiro256RandomSource copy = new Xoshiro256RandomSource(s0, s1, s2, s3);
+		jump();
+		return copy;
+	}
+}
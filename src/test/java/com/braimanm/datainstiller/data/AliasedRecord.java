@@ -0,0 +1,18 @@
+package com.braimanm.datainstiller.data;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+@SuppressWarnings("unused")
+@XStreamAlias("aliased-record")
+public class AliasedRecord extends DataPersistence {
+	@Data(alias = "a", generatorType = "NUMBER", pattern = "#", value = "0,999999")
+	String a;
+	@Data(generatorType = "NUMBER", pattern = "#", value = "0,999999")
+	String b;
+	Inner inner;
+
+	public static class Inner {
+		@Data(generatorType = "WORD", pattern = "{a}")
+		String word;
+	}
+}
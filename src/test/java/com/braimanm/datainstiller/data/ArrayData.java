@@ -0,0 +1,32 @@
+package com.braimanm.datainstiller.data;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+@SuppressWarnings("unused")
+@XStreamAlias("array-data")
+public class ArrayData extends DataPersistence {
+	@Data(generatorType = "RANDOM", nArray = 10000)
+	byte[] payload;
+	@Data(generatorType = "RANDOM", value = "1,6", nArray = 1000)
+	int[] dice;
+	@Data(generatorType = "RANDOM", pattern = "ACGT", nArray = 100)
+	char[] sequence;
+	@Data(generatorType = "NUMBER", pattern = "#.##", value = "0,10", nArray = 50)
+	double[] vector;
+
+	public byte[] getPayload() {
+		return payload;
+	}
+
+	public int[] getDice() {
+		return dice;
+	}
+
+	public char[] getSequence() {
+		return sequence;
+	}
+
+	public double[] getVector() {
+		return vector;
+	}
+}
@@ -0,0 +1,26 @@
+package com.braimanm.datainstiller.data;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SuppressWarnings("unused")
+@XStreamAlias("custom-xstream-data")
+public class CustomXstreamData extends DataPersistence {
+	public static final AtomicInteger HOOK_CALLS = new AtomicInteger();
+	@Data(value = "fixed")
+	String name;
+
+	@Override
+	protected XStream getXstream() {
+		HOOK_CALLS.incrementAndGet();
+		XStream xstream = super.getXstream();
+		xstream.aliasField("renamed", CustomXstreamData.class, "name");
+		return xstream;
+	}
+
+	public String getName() {
+		return name;
+	}
+}
@@ -0,0 +1,35 @@
+package com.braimanm.datainstiller.data;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+
+@SuppressWarnings("unused")
+@XStreamAlias("date-data")
+public class DateData extends DataPersistence {
+	@Data(generatorType = "DATE", value = "2000/01/01|2000/12/31|yyyy/MM/dd")
+	Date date;
+	@Data(generatorType = "DATE", value = "2000/01/01|2000/12/31|yyyy/MM/dd")
+	Instant instant;
+	@Data(generatorType = "DATE", value = "2000/01/01|2000/12/31|yyyy/MM/dd")
+	LocalDate localDate;
+	Date created;
+
+	public Date getDate() {
+		return date;
+	}
+
+	public Instant getInstant() {
+		return instant;
+	}
+
+	public LocalDate getLocalDate() {
+		return localDate;
+	}
+
+	public Date getCreated() {
+		return created;
+	}
+}
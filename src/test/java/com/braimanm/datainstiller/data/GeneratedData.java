@@ -0,0 +1,24 @@
+package com.braimanm.datainstiller.data;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+@SuppressWarnings("unused")
+@XStreamAlias("generated-data")
+public class GeneratedData extends DataPersistence {
+	@Data(generatorType = "HUMAN_NAMES", pattern = "{F} {S}")
+	String name;
+	@Data(generatorType = "ADDRESS", pattern = "{#} {S}, {T}, {O}, {K} ({P})")
+	String address;
+	@Data(generatorType = "ALPHANUMERIC", pattern = "(A)(B)[a][b][c][d]-|x||y|")
+	String code;
+	@Data(generatorType = "WORD", pattern = "{a:4}{b}@{c}.com")
+	String email;
+	@Data(generatorType = "NUMBER", pattern = "#.##", value = "0,1000")
+	String amount;
+	@Data(generatorType = "NUMBER", pattern = "#", value = "1,100")
+	int quantity;
+	@Data(generatorType = "DATE", pattern = "yyyy-MM-dd", value = "2000/01/01|2020/12/31|yyyy/MM/dd")
+	String date;
+	@Data(generatorType = "CUSTOM_LIST", value = "GOLD,SILVER,BRONZE")
+	String level;
+}
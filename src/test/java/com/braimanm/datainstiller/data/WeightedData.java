@@ -0,0 +1,46 @@
+package com.braimanm.datainstiller.data;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+@SuppressWarnings("unused")
+@XStreamAlias("weighted-data")
+public class WeightedData extends DataPersistence {
+	public enum Tier {GOLD, SILVER, BRONZE}
+
+	@Data(generatorType = "CUSTOM_LIST", pattern = "WEIGHTED", value = "GOLD:1,SILVER:5,BRONZE:20")
+	String level;
+	@Data(generatorType = "CUSTOM_LIST", value = "09:00,12:30,17:45")
+	String time;
+	@Data(generatorType = "ENUM", value = "GOLD:0,SILVER:1,BRONZE:3")
+	Tier tier;
+	@Data(generatorType = "ENUM")
+	Tier anyTier;
+	@Data(generatorType = "CUSTOM_LIST", value = "1,2")
+	Tier indexedTier;
+	@Data(generatorType = "FILE2LIST", pattern = "WEIGHTED", value = "tiers.txt")
+	String dictionaryTier;
+
+	public String getLevel() {
+		return level;
+	}
+
+	public String getTime() {
+		return time;
+	}
+
+	public Tier getTier() {
+		return tier;
+	}
+
+	public Tier getAnyTier() {
+		return anyTier;
+	}
+
+	public Tier getIndexedTier() {
+		return indexedTier;
+	}
+
+	public String getDictionaryTier() {
+		return dictionaryTier;
+	}
+}
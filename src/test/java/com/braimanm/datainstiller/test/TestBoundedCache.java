@@ -0,0 +1,40 @@
+package com.braimanm.datainstiller.test;
+
+import com.braimanm.datainstiller.generators.BoundedCache;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class TestBoundedCache {
+
+	@Test
+	public void test_bounded_cache_eviction() {
+		BoundedCache<String, String> cache = new BoundedCache<>(4);
+		AtomicInteger created = new AtomicInteger();
+		for (int i = 0; i < 4; i++) {
+			cache.get("key" + i, key -> key + created.incrementAndGet());
+		}
+		cache.get("key0");
+		for (int i = 4; i < 100; i++) {
+			cache.get("key" + i, key -> key + created.incrementAndGet());
+			// hot key survives eviction of the cold ones
+			Assert.assertEquals(cache.get("key0", key -> key + created.incrementAndGet()), "key01");
+		}
+		Assert.assertEquals(cache.size(), 4);
+		Assert.assertTrue(cache.getEvictions() >= 96);
+		Assert.assertEquals(created.get(), 100);
+		Assert.assertEquals(cache.get("key99", key -> "new"), "key99100");
+	}
+
+	@Test
+	public void test_bounded_cache_concurrency() {
+		BoundedCache<Integer, Integer> cache = new BoundedCache<>(16);
+		IntStream.range(0, 10000).parallel().forEach(i -> {
+			int key = i % 64;
+			Assert.assertEquals(cache.get(key, k -> k * 2).intValue(), key * 2);
+		});
+		Assert.assertTrue(cache.size() <= 16 + Runtime.getRuntime().availableProcessors());
+	}
+}
@@ -14,7 +14,12 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class TestDataGeneration {
 
@@ -228,4 +233,130 @@ public class TestDataGeneration {
         Assert.assertEquals(xmlActual, xmlExpected);
     }
 
+    @Test
+    public void test_deep_copy() {
+        DataGenerator generator = new DataGenerator(new XStream());
+        CircularReferenceA a = generator.generate(CircularReferenceA.class);
+        CircularReferenceA copy = (CircularReferenceA) generator.deepCopy(a);
+        Assert.assertNotSame(copy, a);
+        Assert.assertEquals(copy.toXML(), a.toXML());
+        CircularReferenceA target = new CircularReferenceA();
+        a.deepCopy(a, target);
+        Assert.assertEquals(target.toXML(), a.toXML());
+    }
+
+    @Test
+    public void test_stream_generation() {
+        DataGenerator generator = new DataGenerator(new XStream());
+        List<SimplePOJOArray> records = generator.stream(SimplePOJOArray.class, 100).parallel().collect(Collectors.toList());
+        Assert.assertEquals(records.size(), 100);
+        String expected = new SimplePOJOArray().generateXML();
+        for (SimplePOJOArray record : records) {
+            Assert.assertEquals(record.toXML(), expected);
+        }
+        Assert.assertNotSame(records.get(0).getDataAliases(), records.get(1).getDataAliases());
+        Assert.assertEquals(generator.stream(SimplePOJO.class).limit(10).count(), 10);
+    }
+
+    @Test
+    public void test_parallel_generation() {
+        DataGenerator generator = new DataGenerator(new XStream());
+        String expected = new SimplePOJOArray().generateXML();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<SimplePOJOArray> records = generator.generateParallel(SimplePOJOArray.class, 50, executor);
+            Assert.assertEquals(records.size(), 50);
+            records.forEach(record -> Assert.assertEquals(record.toXML(), expected));
+        } finally {
+            executor.shutdown();
+        }
+        List<SimplePOJOArray> records = generator.generateParallel(SimplePOJOArray.class, 50);
+        records.forEach(record -> Assert.assertEquals(record.toXML(), expected));
+    }
+
+    @Test
+    public void test_alias_substitution() {
+        String xml = "<generated-data><aliases><q>42</q><n>A &amp; B</n></aliases>"
+                + "<name>${n} ${unknown}</name><quantity>${q}</quantity></generated-data>";
+        String resolved = new GeneratedData().fromXml(xml, true).toXML();
+        Assert.assertTrue(resolved.contains("<name>A &amp; B ${unknown}</name>"), resolved);
+        Assert.assertTrue(resolved.contains("<quantity>42</quantity>"), resolved);
+        Assert.assertFalse(resolved.contains("<aliases>"), resolved);
+
+        String late = "<generated-data><name>${n}-x</name><aliases><n>late</n></aliases></generated-data>";
+        resolved = new GeneratedData().fromXml(late, true).toXML();
+        Assert.assertTrue(resolved.contains("<name>late-x</name>"), resolved);
+        Assert.assertFalse(resolved.contains("<aliases>"), resolved);
+        Assert.assertTrue(new GeneratedData().fromXml(late).toXML().contains("<name>${n}-x</name>"));
+    }
+
+    @Test
+    public void test_overridden_xstream_hook() {
+        // records allocated without constructor never run the hook
+        DataGenerator generator = new DataGenerator(new XStream());
+        String xml = generator.generate(CustomXstreamData.class).toXML();
+        Assert.assertTrue(xml.contains("<name>fixed</name>"), xml);
+        Assert.assertNotSame(DataSerializer.of(CustomXstreamData.class), DataSerializer.of(CustomXstreamData.class));
+        Assert.assertEquals(CustomXstreamData.HOOK_CALLS.get(), 0);
+
+        CustomXstreamData data = new CustomXstreamData();
+        data.generateData();
+        xml = data.toXML();
+        Assert.assertTrue(xml.contains("<renamed>fixed</renamed>"), xml);
+        CustomXstreamData loaded = new CustomXstreamData().fromXml("<custom-xstream-data><renamed>loaded</renamed></custom-xstream-data>");
+        Assert.assertEquals(loaded.getName(), "loaded");
+        xml = generator.generate(CustomXstreamData.class).toXML();
+        Assert.assertTrue(xml.contains("<renamed>fixed</renamed>"), xml);
+        Assert.assertSame(DataSerializer.of(CustomXstreamData.class), DataSerializer.of(CustomXstreamData.class));
+        Assert.assertEquals(CustomXstreamData.HOOK_CALLS.get(), 1);
+    }
+
+    @Test
+    public void test_global_aliases_serializer() {
+        DataAliases aliases = new DataAliases();
+        aliases.put("g", "global");
+        DataAliases same = new DataAliases();
+        same.put("g", "global");
+        DataAliases other = new DataAliases();
+        other.put("g", "other");
+        DataSerializer serializer = DataSerializer.of(Pers1.class, aliases);
+        Assert.assertSame(DataSerializer.of(Pers1.class, same), serializer);
+        Assert.assertNotSame(DataSerializer.of(Pers1.class, other), serializer);
+        Assert.assertNotSame(DataSerializer.of(Pers1.class), serializer);
+        aliases.put("g", "changed");
+        Assert.assertSame(DataSerializer.of(Pers1.class, same), serializer);
+    }
+
+    @Test
+    public void test_shared_serializer() {
+        Assert.assertSame(DataSerializer.of(Pers1.class), DataSerializer.of(Pers1.class));
+        Assert.assertSame(DataSerializer.of(Pers1.class).getXStream(), DataSerializer.of(Pers1.class).getXStream());
+        Pattern fullAddress = Pattern.compile("<pers1>\\s*<s1>.*</s1>\\s*<s2>([^<]*)</s2>");
+        Pattern city = Pattern.compile("<city>([^<]*)</city>");
+        List<String> loaded = IntStream.range(0, 200).parallel()
+                .mapToObj(i -> new Pers1().fromResource("pers1.xml", true).toXML())
+                .collect(Collectors.toList());
+        for (String xml : loaded) {
+            Assert.assertFalse(xml.contains("${"), xml);
+            Matcher addressMatcher = fullAddress.matcher(xml);
+            Matcher cityMatcher = city.matcher(xml);
+            Assert.assertTrue(addressMatcher.find() && cityMatcher.find(), xml);
+            Assert.assertTrue(addressMatcher.group(1).contains(", " + cityMatcher.group(1) + ", "), xml);
+        }
+    }
+
+    @Test
+    public void test_primitive_array_generation() {
+        ArrayData data = new ArrayData();
+        data.generateData();
+        Assert.assertEquals(data.getPayload().length, 10000);
+        Assert.assertTrue(IntStream.range(0, 10000).map(i -> data.getPayload()[i]).distinct().count() > 200);
+        Assert.assertEquals(data.getDice().length, 1000);
+        Assert.assertTrue(Arrays.stream(data.getDice()).allMatch(d -> d >= 1 && d <= 6));
+        Assert.assertEquals(Arrays.stream(data.getDice()).distinct().count(), 6);
+        Assert.assertTrue(new String(data.getSequence()).matches("[ACGT]{100}"));
+        Assert.assertEquals(data.getVector().length, 50);
+        Assert.assertEquals(Arrays.stream(data.getVector()).distinct().count(), 1);
+    }
+
 }
@@ -1,10 +1,18 @@
 package com.braimanm.datainstiller.test;
 
+import java.lang.reflect.Field;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import com.braimanm.datainstiller.data.*;
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.converters.basic.AbstractSingleValueConverter;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -27,6 +35,59 @@ public class TestDataValueConverter {
 		Assert.assertTrue(xml.contains("<mood11 mood=\"mood\">mood11</mood11>"));
 		Assert.assertTrue(xml.contains("<mood2 mood=\"mood\">mood2</mood2>"));
 	}
-	
+
+	static class DateConverter implements DataValueConverter {
+		final List<String> values = new ArrayList<>();
+
+		@Override
+		public boolean canConvert(Class type) {
+			return Date.class.equals(type);
+		}
+
+		@Override
+		public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context) {
+			writer.setValue(String.valueOf(((Date) source).getTime()));
+		}
+
+		@Override
+		public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+			return new Date(Long.parseLong(reader.getValue()));
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T fromString(String str, Class<T> cls, Field field) {
+			values.add(str);
+			return (T) new Date(0);
+		}
+	}
+
+	static class InstantConverter extends AbstractSingleValueConverter {
+		@Override
+		public boolean canConvert(Class type) {
+			return Instant.class.equals(type);
+		}
+
+		@Override
+		public Object fromString(String str) {
+			return Instant.EPOCH;
+		}
+	}
+
+	@Test
+	public void testUserConverterOverridesTypedGeneration() {
+		DateConverter dateConverter = new DateConverter();
+		List<DataValueConverter> converters = new ArrayList<>();
+		converters.add(dateConverter);
+		XStream xstream = new XStream();
+		xstream.registerConverter(new InstantConverter());
+		DataGenerator gen = new DataGenerator(xstream, converters);
+		DateData data = gen.generate(DateData.class);
+		Assert.assertEquals(data.getDate(), new Date(0));
+		Assert.assertEquals(data.getCreated(), new Date(0));
+		Assert.assertEquals(data.getInstant(), Instant.EPOCH);
+		Assert.assertEquals(dateConverter.values.size(), 2);
+		Assert.assertTrue(dateConverter.values.get(0).matches("2000/\\d\\d/\\d\\d"), dateConverter.values.get(0));
+	}
 
 }
@@ -0,0 +1,45 @@
+package com.braimanm.datainstiller.test;
+
+import com.braimanm.datainstiller.data.*;
+import com.braimanm.datainstiller.generators.DateGenerator;
+import com.braimanm.datainstiller.generators.RandomSource;
+import com.braimanm.datainstiller.generators.RandomSources;
+import com.thoughtworks.xstream.XStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.TimeZone;
+
+public class TestDateGenerator {
+
+	@Test
+	public void test_date_generation() {
+		DateGenerator generator = new DateGenerator();
+		String range = "2010/01/01|2013/12/31|yyyy/MM/dd";
+		for (String pattern : new String[] {"", "dd MMM yyyy", "yyyy-MM-dd HH:mm:ss", "EEEE, MMMM d, yy h:mm a",
+				"yyyy-MM-dd'T'HH:mm:ss.SSS z", "D 'day' ''yy"}) {
+			SimpleDateFormat format = new SimpleDateFormat(pattern.isEmpty() ? "yyyy/MM/dd" : pattern);
+			format.setTimeZone(TimeZone.getTimeZone("GMT"));
+			RandomSource typedSource = RandomSources.splitMix64(11);
+			RandomSource stringSource = RandomSources.splitMix64(11);
+			try {
+				for (int i = 0; i < 50; i++) {
+					RandomSources.bind(typedSource);
+					Date date = (Date) generator.generate(Date.class, pattern, range);
+					RandomSources.bind(stringSource);
+					Assert.assertEquals(generator.generate(pattern, range), format.format(date));
+				}
+			} finally {
+				RandomSources.bind(null);
+			}
+		}
+
+		DateData data = new DataGenerator(new XStream()).generate(DateData.class);
+		Assert.assertEquals(data.getLocalDate().getYear(), 2000);
+		Assert.assertEquals(data.getInstant().atOffset(ZoneOffset.UTC).getYear(), 2000);
+		Assert.assertTrue(data.getDate().before(data.getCreated()));
+	}
+}
@@ -0,0 +1,114 @@
+package com.braimanm.datainstiller.test;
+
+import com.braimanm.datainstiller.generators.AddressGenerator;
+import com.braimanm.datainstiller.generators.DictionaryCache;
+import com.braimanm.datainstiller.generators.File2ListGenerator;
+import com.braimanm.datainstiller.generators.File2ListReader;
+import com.braimanm.datainstiller.generators.File2RowGenerator;
+import com.braimanm.datainstiller.generators.PackedDictionary;
+import com.braimanm.datainstiller.generators.RowDictionary;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class TestDictionaries {
+
+	@Test
+	public void test_dictionary_cache() {
+		DictionaryCache cache = new DictionaryCache(2, File2ListReader::read);
+		List<String> streets = cache.get("/streets");
+		Assert.assertSame(cache.get("/streets"), streets);
+		cache.get("/canada_cities");
+		cache.get("/streets");
+		cache.get("/words_en");
+		DictionaryCache.Stats stats = cache.getStats();
+		Assert.assertEquals(stats.getMisses(), 3);
+		Assert.assertEquals(stats.getHits(), 2);
+		Assert.assertEquals(stats.getEvictions(), 1);
+		Assert.assertEquals(stats.getSize(), 2);
+		Assert.assertSame(cache.get("/streets"), streets);
+		Assert.assertEquals(cache.getStats().getMisses(), 3);
+		List<String> copy = new AddressGenerator().populate("/streets");
+		Assert.assertEquals(copy, File2ListReader.read("/streets"));
+		Assert.assertFalse(new AddressGenerator().populate("/streets") == copy);
+		copy.add("extra");
+		Collections.shuffle(copy);
+		Assert.assertEquals(new File2ListGenerator().populate("/streets").size(), copy.size() - 1);
+
+		AtomicInteger loads = new AtomicInteger();
+		DictionaryCache counting = new DictionaryCache(4, name -> {
+			loads.incrementAndGet();
+			return File2ListReader.read(name);
+		});
+		IntStream.range(0, 64).parallel().forEach(i -> counting.get("/streets"));
+		Assert.assertEquals(loads.get(), 1);
+		Integer size = counting.get("/streets", Integer.class, List::size);
+		Assert.assertEquals(size.intValue(), streets.size());
+		Assert.assertSame(counting.get("/streets", Integer.class, List::size), size);
+		Assert.assertEquals(loads.get(), 1);
+	}
+
+	@Test
+	public void test_packed_dictionary() throws IOException {
+		for (String resource : new String[] {"/streets", "/canada_cities", "/words_en", "/male_names"}) {
+			List<String> expected = new ArrayList<>();
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream(resource),
+					StandardCharsets.ISO_8859_1))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					expected.add(line);
+				}
+			}
+			List<String> packed = File2ListReader.read(resource);
+			Assert.assertTrue(packed instanceof PackedDictionary);
+			Assert.assertEquals(packed, expected);
+		}
+		// text dictionaries without compiled ".dict" are decoded with the charset of the compiled ones
+		Assert.assertEquals(File2ListReader.read("/latin1.txt"), Arrays.asList("caf\u00e9", "na\u00efve"));
+		byte[] text = "a\r\nbb\n\nccc\rd".getBytes(StandardCharsets.UTF_8);
+		PackedDictionary dictionary = PackedDictionary.read(new ByteArrayInputStream(text), StandardCharsets.UTF_8);
+		Assert.assertEquals(dictionary, Arrays.asList("a", "bb", "", "ccc", "d"));
+		Assert.assertEquals(PackedDictionary.of(Arrays.asList("\u00e9", "\u0436")).get(1), "\u0436");
+		for (boolean compress : new boolean[] {false, true}) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			dictionary.write(out, compress);
+			Assert.assertEquals(PackedDictionary.load(ByteBuffer.wrap(out.toByteArray())), dictionary);
+		}
+	}
+
+	@Test
+	public void test_row_dictionary() {
+		RowDictionary rows = RowDictionary.of(Arrays.asList("a\tNL\t1", "b\tNL", "c\tQC\t3\textra"));
+		Assert.assertEquals(rows.getRows(), 3);
+		Assert.assertEquals(rows.getColumns(), 3);
+		Assert.assertEquals(rows.get(1, 2), "");
+		Assert.assertEquals(rows.get(2, 2), "3");
+		Assert.assertSame(rows.get(0, 1), rows.get(1, 1));
+		List<String> products = Arrays.asList("W-100 Widget 9.99", "G-200 Gadget 19.50", "Z-300 Gizmo 4.25");
+		File2RowGenerator generator = new File2RowGenerator();
+		for (int i = 0; i < 20; i++) {
+			Assert.assertTrue(products.contains(generator.generate("{1} {0} {2}", "products.tsv")));
+		}
+		Assert.assertSame(RowDictionary.load("/products.tsv"), RowDictionary.load("/products.tsv"));
+		Assert.assertTrue(generator.generate("{x}-{0}", "products.tsv").matches("\\{x}-\\w+"));
+		try {
+			generator.generate("{0} {7}", "products.tsv");
+			Assert.fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(e.getMessage().contains("Column 7"), e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.braimanm.datainstiller.test;
+
+import com.braimanm.datainstiller.data.*;
+import com.braimanm.datainstiller.generators.NumberGenerator;
+import com.thoughtworks.xstream.XStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Field;
+
+public class TestGenerationMetrics {
+
+	@Test
+	public void test_generation_metrics() throws NoSuchFieldException {
+		GenerationMetrics metrics = new GenerationMetrics();
+		DataGenerator generator = new DataGenerator(new XStream());
+		generator.setGenerationListener(metrics);
+		generator.stream(GeneratedData.class, 10).forEach(data -> {
+		});
+		Assert.assertEquals(metrics.getRecordTimes().get(GeneratedData.class).getCount(), 10);
+		Field name = GeneratedData.class.getDeclaredField("name");
+		Assert.assertEquals(metrics.getFieldTimes().get(name).getCount(), 10);
+		Assert.assertEquals(metrics.getClassTimes().get(GeneratedData.class).getCount(), 80);
+		Assert.assertEquals(metrics.getGeneratorTimes().get(NumberGenerator.class).getCount(), 20);
+
+		DataSerializer serializer = DataSerializer.of(GeneratedData.class);
+		serializer.setGenerationListener(metrics);
+		try {
+			GeneratedData data = new GeneratedData();
+			data.generateData();
+			String xml = data.toXML();
+			data.fromXml(xml);
+			Assert.assertEquals(metrics.getSerializedBytes().getCount(), 1);
+			Assert.assertEquals(metrics.getParsedBytes().getMax(), xml.length());
+			Assert.assertEquals(metrics.getDeepCopies().get(GeneratedData.class).sum(), 1);
+		} finally {
+			serializer.setGenerationListener(null);
+		}
+		Assert.assertTrue(metrics.report().contains(GeneratedData.class.getName() + ".name"));
+	}
+}
@@ -0,0 +1,60 @@
+package com.braimanm.datainstiller.test;
+
+import com.braimanm.datainstiller.data.*;
+import com.braimanm.datainstiller.generators.GeneratorInterface;
+import com.braimanm.datainstiller.generators.GeneratorProvider;
+import com.braimanm.datainstiller.generators.GeneratorRegistry;
+import com.thoughtworks.xstream.XStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestGeneratorRegistry {
+
+	@Test
+	public void test_generator_directives() {
+		GeneratorRegistry registry = GeneratorRegistry.getDefault();
+		Assert.assertTrue(registry.getNames().containsAll(Arrays.asList("ADDRESS", "NUMBER", "ENUM", "FILE2ROW")));
+		Assert.assertSame(registry.get("NUMBER"), registry.get("NUMBER"));
+		String xml = "<generated-data><aliases><n>$[NUMBER('0000','5,5')]</n></aliases><name>${n}</name></generated-data>";
+		Assert.assertTrue(new GeneratedData().fromXml(xml, true).toXML().contains("<name>0005</name>"));
+		String unknown = "<generated-data><aliases><n>$[UNKNOWN('','')]</n></aliases></generated-data>";
+		try {
+			new GeneratedData().fromXml(unknown);
+			Assert.fail("Unknown generator should fail");
+		} catch (RuntimeException e) {
+			Assert.assertTrue(e.getMessage().contains("Generator UNKNOWN was not found!"), e.getMessage());
+		}
+	}
+
+	public static class ConstantGeneratorProvider implements GeneratorProvider {
+		static final AtomicInteger created = new AtomicInteger();
+
+		@Override
+		public void registerGenerators(GeneratorRegistry registry) {
+			registry.registerSupplier("CONSTANT", () -> {
+				created.incrementAndGet();
+				return (pattern, value) -> value;
+			});
+		}
+	}
+
+	@Test
+	public void test_generator_registry() {
+		GeneratorRegistry registry = GeneratorRegistry.getDefault();
+		Assert.assertEquals(registry.get("CONSTANT").generate(null, "abc"), "abc");
+		Assert.assertSame(registry.get("CONSTANT"), registry.get("CONSTANT"));
+		Assert.assertEquals(ConstantGeneratorProvider.created.get(), 1);
+
+		DataGenerator generator = new DataGenerator(new XStream());
+		Assert.assertSame(generator.getGenerator("NUMBER"), registry.get("NUMBER"));
+		Assert.assertSame(new DataGenerator(new XStream()).getGenerator("ADDRESS"), registry.get("ADDRESS"));
+		GeneratorInterface override = (pattern, value) -> "override";
+		generator.registerGenerator("NUMBER", override);
+		Assert.assertSame(generator.getGenerator("NUMBER"), override);
+		Assert.assertNotSame(registry.get("NUMBER"), override);
+		Assert.assertTrue(generator.getGeneratorRegistry().getNames().contains("CONSTANT"));
+	}
+}
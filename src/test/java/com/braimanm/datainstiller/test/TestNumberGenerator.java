@@ -0,0 +1,72 @@
+package com.braimanm.datainstiller.test;
+
+import com.braimanm.datainstiller.generators.NumberGenerator;
+import com.braimanm.datainstiller.generators.RandomSource;
+import com.braimanm.datainstiller.generators.RandomSources;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.SingleValueConverter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+
+public class TestNumberGenerator {
+
+	@Test
+	public void test_typed_number_generation() {
+		NumberGenerator generator = new NumberGenerator();
+		XStream xstream = new XStream();
+		Object[][] cases = {{int.class, "#", "-100,100"}, {Long.class, "0", "0,5"}, {double.class, "#.##", "-10,10"},
+				{Float.class, "0.000", "0,1000"}, {byte.class, "#", "-128,127"}};
+		try {
+			for (Object[] c : cases) {
+				Class<?> type = (Class<?>) c[0];
+				String pattern = (String) c[1];
+				String value = (String) c[2];
+				Assert.assertTrue(generator.supports(type, pattern));
+				SingleValueConverter converter = (SingleValueConverter) xstream.getConverterLookup().lookupConverterForType(type);
+				RandomSource stringSource = RandomSources.splitMix64(3);
+				RandomSource typedSource = RandomSources.splitMix64(3);
+				for (int i = 0; i < 200; i++) {
+					RandomSources.bind(stringSource);
+					String expected = generator.generate(pattern, value);
+					RandomSources.bind(typedSource);
+					Object actual = generator.generate(type, pattern, value);
+					Assert.assertEquals(actual, converter.fromString(expected));
+				}
+			}
+		} finally {
+			RandomSources.bind(null);
+		}
+		Assert.assertFalse(generator.supports(int.class, "#.##"));
+		Assert.assertFalse(generator.supports(double.class, "#,###.##"));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void test_exact_number_generation() {
+		NumberGenerator generator = new NumberGenerator();
+		RandomSources.bind(RandomSources.splitMix64(11));
+		boolean odd = false;
+		try {
+			for (int i = 0; i < 100; i++) {
+				long num = Long.parseLong(generator.generate("#", "1000000000000000000,1000000000000001000"));
+				Assert.assertTrue(num >= 1000000000000000000L && num <= 1000000000000001000L, String.valueOf(num));
+				odd |= (num & 1) == 1;
+				BigDecimal decimal = (BigDecimal) generator.generate(BigDecimal.class, "0.0#", "0.5,1.25");
+				Assert.assertTrue(decimal.compareTo(new BigDecimal("0.5")) >= 0 && decimal.compareTo(new BigDecimal("1.25")) <= 0);
+				Assert.assertTrue(decimal.scale() >= 1 && decimal.scale() <= 2, decimal.toString());
+				Assert.assertTrue(generator.generate("0000", "0,99").matches("00\\d\\d"));
+				Assert.assertEquals(new NumberGenerator("7", "7", "#").getNum(), "7");
+			}
+		} finally {
+			RandomSources.bind(null);
+		}
+		Assert.assertTrue(odd);
+		Assert.assertTrue(generator.supports(BigDecimal.class, "#.##"));
+		Assert.assertTrue(IntStream.range(0, 1000).parallel()
+				.mapToObj(i -> generator.generate("$#,##0.00", "1000,2000"))
+				.allMatch(num -> num.matches("\\$1,\\d{3}\\.\\d\\d|\\$2,000\\.00")));
+	}
+}
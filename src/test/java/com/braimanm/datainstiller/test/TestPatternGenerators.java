@@ -0,0 +1,47 @@
+package com.braimanm.datainstiller.test;
+
+import com.braimanm.datainstiller.generators.AddressGenerator;
+import com.braimanm.datainstiller.generators.AlphaNumericGenerator;
+import com.braimanm.datainstiller.generators.HumanNameGenerator;
+import com.braimanm.datainstiller.generators.PlaceholderTemplate;
+import com.braimanm.datainstiller.generators.WordGenerator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestPatternGenerators {
+
+	@Test
+	public void test_alphanumeric_pattern() {
+		AlphaNumericGenerator generator = new AlphaNumericGenerator();
+		for (int i = 0; i < 100; i++) {
+			String value = generator.generate("ID-(A)(b)[a][b]{c}|D|-(A)[a]|x]");
+			Assert.assertTrue(value.matches("ID-[A-Z][a-z][0-9][0-9][a-zA-Z0-9][A-Z0-9]-[A-Z][0-9][a-z0-9]"), value);
+			Assert.assertEquals(value.charAt(10), value.charAt(3));
+			Assert.assertEquals(value.charAt(11), value.charAt(5));
+		}
+		Assert.assertEquals(generator.generate("no symbols (1) [ab] |"), "no symbols (1) [ab] |");
+	}
+
+	@Test
+	public void test_word_pattern() {
+		WordGenerator generator = new WordGenerator();
+		for (int i = 0; i < 100; i++) {
+			String value = generator.generate("{a:4}.{B:7}@|c|.com {a:4} [d:3] {e:0}");
+			Assert.assertTrue(value.matches("[a-z.]{4}\\.[A-Z.]{7}@[A-Z][a-z.]*\\.com [a-z.]{4} ([a-z.]{3}|[A-Z.]{3}) [a-z.]{1,10}"), value);
+			Assert.assertEquals(value.substring(0, 4), value.substring(value.indexOf(' ') + 1, value.indexOf(' ') + 5));
+		}
+	}
+
+	@Test
+	public void test_placeholder_template() {
+		PlaceholderTemplate template = PlaceholderTemplate.compile("{F} {S}-{S} {X} {F", "FMAS");
+		Assert.assertTrue(template.references(0));
+		Assert.assertFalse(template.references(1));
+		Assert.assertEquals(template.render("Anna", null, null, "Lee"), "Anna Lee-Lee {X} {F");
+		Assert.assertSame(PlaceholderTemplate.compile("{F} {S}-{S} {X} {F", "FMAS"), template);
+		String name = new HumanNameGenerator().generate("{M} {S}, {S}", null);
+		Assert.assertTrue(name.endsWith(name.substring(name.indexOf(' ') + 1, name.indexOf(','))), name);
+		String address = new AddressGenerator().generate("{T}|{K}|{C}", null);
+		Assert.assertTrue(address.matches("[^|]+\\|[A-Z]{2}\\|CANADA"), address);
+	}
+}
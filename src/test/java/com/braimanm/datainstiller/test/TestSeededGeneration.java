@@ -0,0 +1,76 @@
+package com.braimanm.datainstiller.test;
+
+import com.braimanm.datainstiller.data.*;
+import com.braimanm.datainstiller.generators.RandomSources;
+import com.thoughtworks.xstream.XStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TestSeededGeneration {
+
+	@Test
+	public void test_seeded_random_source() {
+		DataGenerator gen1 = new DataGenerator(new XStream());
+		gen1.setRandomSource(RandomSources.xoshiro256(42));
+		DataGenerator gen2 = new DataGenerator(new XStream());
+		gen2.setRandomSource(RandomSources.xoshiro256(42));
+		for (int i = 0; i < 5; i++) {
+			Assert.assertEquals(gen1.generate(GeneratedData.class).toXML(), gen2.generate(GeneratedData.class).toXML());
+		}
+	}
+
+	@Test
+	public void test_record_by_index() {
+		DataGenerator generator = new DataGenerator(new XStream());
+		generator.setSeed(7L);
+		List<String> sequential = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			sequential.add(generator.generate(GeneratedData.class).toXML());
+		}
+		List<String> parallel = generator.stream(GeneratedData.class, 20).parallel()
+				.map(GeneratedData::toXML).collect(Collectors.toList());
+		Assert.assertEquals(parallel, sequential);
+		List<GeneratedData> records = generator.generateParallel(GeneratedData.class, 20);
+		for (int i = 0; i < 20; i++) {
+			Assert.assertEquals(records.get(i).toXML(), sequential.get(i));
+		}
+		DataGenerator other = new DataGenerator(new XStream());
+		other.setSeed(7L);
+		Assert.assertEquals(other.generate(GeneratedData.class, 13).toXML(), sequential.get(13));
+		Assert.assertNotEquals(sequential.get(0), sequential.get(1));
+
+		DataGenerator aliased = new DataGenerator(new XStream());
+		aliased.setSeed(11L);
+		List<String> aliasedSequential = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			aliasedSequential.add(aliased.generate(AliasedRecord.class).toXML());
+		}
+		DataGenerator aliasedOther = new DataGenerator(new XStream());
+		aliasedOther.setSeed(11L);
+		for (int i = 0; i < 4; i++) {
+			String xml = aliasedSequential.get(i);
+			Assert.assertEquals(xml, aliasedOther.generate(AliasedRecord.class, i).toXML());
+			Assert.assertTrue(xml.contains("<word>"), xml);
+		}
+		Assert.assertEquals(aliased.stream(AliasedRecord.class, 4).map(AliasedRecord::toXML).collect(Collectors.toList()),
+				aliasedSequential);
+		Assert.assertNotEquals(aliasedSequential.get(1).replaceAll("(?s).*<aliases>(.*)</aliases>.*", "$1"),
+				aliasedSequential.get(0).replaceAll("(?s).*<aliases>(.*)</aliases>.*", "$1"));
+	}
+
+	@Test
+	public void test_seeded_date_field() throws InterruptedException {
+		DataGenerator generator = new DataGenerator(new XStream());
+		generator.setSeed(5L);
+		DateData first = generator.generate(DateData.class, 3);
+		Thread.sleep(5);
+		DateData second = generator.generate(DateData.class, 3);
+		Assert.assertEquals(second.getCreated(), first.getCreated());
+		Assert.assertEquals(second.toXML(), first.toXML());
+		Assert.assertNotEquals(generator.generate(DateData.class, 4).getCreated(), first.getCreated());
+	}
+}
@@ -0,0 +1,59 @@
+package com.braimanm.datainstiller.test;
+
+import com.braimanm.datainstiller.data.*;
+import com.braimanm.datainstiller.generators.EnumGenerator;
+import com.braimanm.datainstiller.generators.RandomSource;
+import com.braimanm.datainstiller.generators.RandomSources;
+import com.braimanm.datainstiller.generators.WeightedChoice;
+import com.thoughtworks.xstream.XStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+public class TestWeightedChoice {
+
+	@Test
+	public void test_weighted_choice() {
+		WeightedChoice<String> choice = WeightedChoice.parse("GOLD:1,SILVER:5,BRONZE:20", true);
+		Assert.assertSame(WeightedChoice.parse("GOLD:1,SILVER:5,BRONZE:20", true), choice);
+		Assert.assertEquals(choice.getValues(), Arrays.asList("GOLD", "SILVER", "BRONZE"));
+		Assert.assertFalse(WeightedChoice.parse("16:9,4:3", false).isWeighted());
+		RandomSource random = RandomSources.splitMix64(5);
+		int[] counts = new int[3];
+		for (int i = 0; i < 26000; i++) {
+			counts[choice.nextIndex(random)]++;
+		}
+		Assert.assertTrue(Math.abs(counts[0] - 1000) < 200, Arrays.toString(counts));
+		Assert.assertTrue(Math.abs(counts[1] - 5000) < 400, Arrays.toString(counts));
+		Assert.assertTrue(Math.abs(counts[2] - 20000) < 600, Arrays.toString(counts));
+
+		DataGenerator generator = new DataGenerator(new XStream());
+		generator.setSeed(3L);
+		boolean anyGold = false;
+		for (int i = 0; i < 200; i++) {
+			WeightedData data = generator.generate(WeightedData.class, i);
+			Assert.assertTrue(choice.getValues().contains(data.getLevel()));
+			Assert.assertTrue(Arrays.asList("09:00", "12:30", "17:45").contains(data.getTime()), data.getTime());
+			Assert.assertNotEquals(data.getTier(), WeightedData.Tier.GOLD);
+			anyGold |= data.getAnyTier() == WeightedData.Tier.GOLD;
+			Assert.assertNotEquals(data.getIndexedTier(), WeightedData.Tier.GOLD);
+			Assert.assertNotEquals(data.getDictionaryTier(), "SILVER");
+		}
+		Assert.assertTrue(anyGold);
+		try {
+			RandomSources.bind(random);
+			EnumGenerator enumGenerator = new EnumGenerator();
+			for (int i = 0; i < 50; i++) {
+				Set<WeightedData.Tier> tiers = enumGenerator.generateSet(WeightedData.Tier.class, "2", "GOLD:0,SILVER:1,BRONZE:3");
+				Assert.assertEquals(tiers, EnumSet.of(WeightedData.Tier.SILVER, WeightedData.Tier.BRONZE));
+				int size = enumGenerator.generateSet(WeightedData.Tier.class, "1,3", "").size();
+				Assert.assertTrue(size >= 1 && size <= 3);
+			}
+		} finally {
+			RandomSources.bind(null);
+		}
+	}
+}